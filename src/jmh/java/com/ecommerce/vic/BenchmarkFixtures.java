@@ -0,0 +1,92 @@
+package com.ecommerce.vic;
+
+import com.ecommerce.vic.constants.OrderStatus;
+import com.ecommerce.vic.constants.UserRole;
+import com.ecommerce.vic.model.Order;
+import com.ecommerce.vic.model.OrderItem;
+import com.ecommerce.vic.model.Product;
+import com.ecommerce.vic.model.User;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Detached entities shaped like typical production rows, shared by the benchmarks
+public final class BenchmarkFixtures {
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 3, 15, 10, 30);
+
+    private BenchmarkFixtures() {
+    }
+
+    public static User admin() {
+        return User.builder()
+                .userId(1L)
+                .email("admin@example.com")
+                .firstName("Ada")
+                .lastName("Admin")
+                .role(UserRole.ADMIN)
+                .build();
+    }
+
+    public static User customer() {
+        return User.builder()
+                .userId(42L)
+                .email("customer@example.com")
+                .firstName("Jane")
+                .lastName("Doe")
+                .phone("+15551234567")
+                .role(UserRole.CUSTOMER)
+                .build();
+    }
+
+    public static List<Product> products(int count) {
+        User admin = admin();
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            products.add(Product.builder()
+                    .productId((long) i)
+                    .name("Product " + i)
+                    .description("A reasonably descriptive paragraph about product " + i + " and its features.")
+                    .price(new BigDecimal("19.99").add(BigDecimal.valueOf(i)))
+                    .stockQuantity(100 + i)
+                    .reorderPoint(10)
+                    .imageUrl("https://cdn.example.com/products/" + i + ".jpg")
+                    .category("apparel")
+                    .size("M")
+                    .admin(admin)
+                    .createdAt(CREATED_AT)
+                    .updatedAt(CREATED_AT)
+                    .build());
+        }
+        return products;
+    }
+
+    public static Order order(int itemCount) {
+        Order order = Order.builder()
+                .id(1001L)
+                .orderNumber("ORD-2024-1001")
+                .user(customer())
+                .status(OrderStatus.PROCESSING)
+                .shippingAddress("123 Main St, Springfield, US")
+                .createdAt(CREATED_AT)
+                .updatedAt(CREATED_AT)
+                .build();
+        BigDecimal total = BigDecimal.ZERO;
+        long itemId = 1;
+        for (Product product : products(itemCount)) {
+            BigDecimal subtotal = product.getPrice().multiply(BigDecimal.valueOf(2));
+            order.getOrderItems().add(OrderItem.builder()
+                    .id(itemId++)
+                    .order(order)
+                    .product(product)
+                    .quantity(2)
+                    .unitPrice(product.getPrice())
+                    .subtotal(subtotal)
+                    .build());
+            total = total.add(subtotal);
+        }
+        order.setTotalAmount(total);
+        return order;
+    }
+}
@@ -0,0 +1,66 @@
+package com.ecommerce.vic.notification;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Cost of rendering one HTML order confirmation from the compiled templates
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NotificationTemplatesBenchmark {
+    private NotificationTemplates templates;
+    private Map<String, Object> model;
+
+    @Setup
+    public void setUp() {
+        templates = new NotificationTemplates(
+                new PathMatchingResourcePatternResolver(), "classpath:/notifications/", false);
+        templates.load();
+
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            Map<String, Object> line = new HashMap<>();
+            line.put("name", "Product <" + i + "> & accessories");
+            line.put("quantity", i);
+            line.put("unitPrice", new BigDecimal("19.99"));
+            line.put("subtotal", new BigDecimal("19.99").multiply(BigDecimal.valueOf(i)));
+            items.add(line);
+        }
+        model = new HashMap<>();
+        model.put("orderNumber", "ORD-100042");
+        model.put("orderDate", "Oct 19, 2026");
+        model.put("shippingAddress", "1 Main St, Springfield");
+        model.put("totalAmount", new BigDecimal("299.85"));
+        model.put("items", items);
+    }
+
+    @Benchmark
+    public RenderedNotification orderConfirmation() {
+        return templates.render("order-confirmation", Locale.ENGLISH, model);
+    }
+
+    @Benchmark
+    public RenderedNotification localizedVerificationEmail() {
+        return templates.render("email-verification", Locale.CANADA_FRENCH, Map.of("code", "123456"));
+    }
+}
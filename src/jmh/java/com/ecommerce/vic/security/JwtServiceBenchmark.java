@@ -0,0 +1,86 @@
+package com.ecommerce.vic.security;
+
+import com.ecommerce.vic.config.JwtConfig;
+import com.ecommerce.vic.constants.UserRole;
+import com.ecommerce.vic.model.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// Token issuing on login and refresh, and per-request validation: the old filter path against the
+// single-parse and cached paths
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+    private static final String SECRET = "dmljLWJlbmNobWFyay1zaWduaW5nLWtleS10aGF0LWlzLWxvbmctZW5vdWdoLWZvci1oczI1Ng==";
+
+    private JwtConfig jwtConfig;
+    private JwtService jwtService;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtConfig = new JwtConfig();
+        jwtConfig.setSecret(SECRET);
+        jwtConfig.setExpiration(TimeUnit.HOURS.toMillis(1));
+        jwtService = new JwtService(jwtConfig, new SimpleMeterRegistry());
+        user = User.builder()
+                .userId(42L)
+                .email("customer@example.com")
+                .role(UserRole.CUSTOMER)
+                .build();
+        token = jwtService.generateToken(user);
+        jwtService.verify(token);
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public boolean legacyExtractAndValidate() {
+        // extractUsername in the filter, then extractUsername and extractExpiration in isTokenValid
+        String username = legacyClaim(Claims::getSubject);
+        return legacyClaim(Claims::getSubject).equals(username)
+                && !legacyClaim(Claims::getExpiration).before(new Date());
+    }
+
+    @Benchmark
+    public JwtService.VerifiedToken singleParse() {
+        return jwtService.parse(token);
+    }
+
+    @Benchmark
+    public JwtService.VerifiedToken cachedVerify() {
+        return jwtService.verify(token);
+    }
+
+    private <T> T legacyClaim(Function<Claims, T> resolver) {
+        SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtConfig.getSecret()));
+        Claims claims = Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+        return resolver.apply(claims);
+    }
+}
@@ -0,0 +1,49 @@
+package com.ecommerce.vic.service;
+
+import com.ecommerce.vic.BenchmarkFixtures;
+import com.ecommerce.vic.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+// BigDecimal totals recomputed after every cart mutation and every repricing
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartServiceBenchmark {
+    @Param({"3", "25"})
+    public int lines;
+
+    private CartService cartService;
+    private CartState cart;
+
+    @Setup
+    public void setUp() {
+        cartService = new CartService(null, null, null);
+        cart = CartState.empty(42L, 1L);
+        long itemId = 1;
+        for (Product product : BenchmarkFixtures.products(lines)) {
+            cart.addLine(itemId++, product, 3);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal updateCartTotals() {
+        cartService.updateCartTotals(cart);
+        return cart.getSubtotal();
+    }
+}
@@ -0,0 +1,61 @@
+package com.ecommerce.vic.service;
+
+import com.ecommerce.vic.BenchmarkFixtures;
+import com.ecommerce.vic.dto.order.OrderResponse;
+import com.ecommerce.vic.dto.product.ProductResponse;
+import com.ecommerce.vic.mapper.OrderMapper;
+import com.ecommerce.vic.mapper.UserMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Response body serialisation for an order and a default-sized catalog page, with a Boot-equivalent mapper
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+    private ObjectMapper objectMapper;
+    private OrderResponse order;
+    private Page<ProductResponse> productPage;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        order = new OrderMapper(new UserMapper()).toOrderResponse(BenchmarkFixtures.order(5));
+        ProductService productService = new ProductService(null, null, null);
+        List<ProductResponse> products = BenchmarkFixtures.products(20).stream()
+                .map(productService::mapToResponse)
+                .toList();
+        productPage = new PageImpl<>(products, PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "createdAt")), 500);
+    }
+
+    @Benchmark
+    public byte[] orderResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public byte[] productPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(productPage);
+    }
+}
@@ -0,0 +1,52 @@
+package com.ecommerce.vic.service;
+
+import com.ecommerce.vic.BenchmarkFixtures;
+import com.ecommerce.vic.dto.product.ProductResponse;
+import com.ecommerce.vic.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Sort;
+
+import java.util.concurrent.TimeUnit;
+
+// Per-product mapping and per-request sort parsing on the catalog listing path
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductServiceBenchmark {
+    private ProductService productService;
+    private Product product;
+
+    @Setup
+    public void setUp() {
+        // Mapping and sort parsing touch none of the collaborators
+        productService = new ProductService(null, null, null);
+        product = BenchmarkFixtures.products(1).get(0);
+    }
+
+    @Benchmark
+    public ProductResponse mapToResponse() {
+        return productService.mapToResponse(product);
+    }
+
+    @Benchmark
+    public Sort createDefaultSort() {
+        return productService.createSort(null);
+    }
+
+    @Benchmark
+    public Sort createRequestedSort() {
+        return productService.createSort("price,asc");
+    }
+}
@@ -0,0 +1,135 @@
+package com.ecommerce.vic.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+// A burst of concurrent requests served by a Tomcat-sized platform pool against one virtual thread per request.
+// Both sit behind the same 5-connection limiter; a catalog page is one short query, a checkout holds its
+// connection across several statements. Run with -Pbenchmark,java21 on a Java 21 JDK.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestExecutionBenchmark {
+    private static final int POOL_SIZE = 5;
+    private static final int TOMCAT_MAX_THREADS = 200;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"catalog", "checkout"})
+    public String endpoint;
+
+    @Param({"1000"})
+    public int burst;
+
+    private ExecutorService executor;
+    private DataSource dataSource;
+    private final AtomicInteger failures = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = "virtual".equals(threads)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+        dataSource = new ConcurrencyLimitedDataSource(
+                simulatedPool(), POOL_SIZE, Integer.MAX_VALUE, Duration.ofSeconds(30));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+        if (failures.get() > 0) {
+            throw new IllegalStateException(failures.get() + " simulated requests failed");
+        }
+    }
+
+    @Benchmark
+    public void serveBurst(Blackhole blackhole) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(burst);
+        boolean checkout = "checkout".equals(endpoint);
+        for (int i = 0; i < burst; i++) {
+            executor.execute(() -> {
+                try {
+                    if (checkout) {
+                        checkout(blackhole);
+                    } else {
+                        catalog(blackhole);
+                    }
+                } catch (Exception e) {
+                    failures.incrementAndGet();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+    }
+
+    private void catalog(Blackhole blackhole) throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            query(connection, 1);
+        }
+        // Mapping and serialising the page
+        Blackhole.consumeCPU(20_000);
+        blackhole.consume(endpoint);
+    }
+
+    private void checkout(Blackhole blackhole) throws Exception {
+        // Token verification and request validation before the transaction starts
+        Blackhole.consumeCPU(10_000);
+        try (Connection connection = dataSource.getConnection()) {
+            // Cart and stock reads, order insert, stock update
+            for (int statement = 0; statement < 4; statement++) {
+                query(connection, 1);
+                Blackhole.consumeCPU(2_000);
+            }
+        }
+        Blackhole.consumeCPU(20_000);
+        blackhole.consume(endpoint);
+    }
+
+    private static void query(Connection connection, long millis) {
+        // Round trip to Postgres: the thread is parked, not computing
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    private static DataSource simulatedPool() {
+        Connection connection = (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "isClosed" -> false;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> null;
+                });
+        return (DataSource) Proxy.newProxyInstance(
+                DataSource.class.getClassLoader(), new Class<?>[]{DataSource.class},
+                (proxy, method, args) -> "getConnection".equals(method.getName()) ? connection : null);
+    }
+}
@@ -0,0 +1,283 @@
+package com.ecommerce.vic.analytics;
+
+import com.ecommerce.vic.constants.AnalyticsDimension;
+import com.ecommerce.vic.dto.report.OrderLineRow;
+
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Columnar, append-only snapshot of order lines in primitive arrays. A single writer appends and
+// patches statuses; readers work off the last published Columns and never see rows beyond its size.
+// Products and customers are stored as dense codes in order of first appearance, so per-query
+// aggregation arrays are sized by how many distinct ids the snapshot holds, not by the largest id.
+public class OrderLineStore {
+    private static final int INITIAL_CAPACITY = 1 << 16;
+
+    private final int maxLines;
+    private final Map<String, Integer> categoryCodes = new HashMap<>();
+    private volatile String[] categoryNames = new String[0];
+    private final Dictionary products = new Dictionary();
+    private final Dictionary customers = new Dictionary();
+    private volatile Columns columns = new Columns(INITIAL_CAPACITY);
+
+    public OrderLineStore(int maxLines) {
+        this.maxLines = maxLines;
+    }
+
+    public int size() {
+        return columns.size;
+    }
+
+    public int append(List<OrderLineRow> rows) {
+        Columns current = columns;
+        int count = Math.min(rows.size(), maxLines - current.size);
+        if (count <= 0) {
+            return 0;
+        }
+
+        int newSize = current.size + count;
+        Columns target = newSize <= current.capacity()
+                ? current
+                : current.copyWithCapacity(Math.min(maxLines, Math.max(newSize, current.capacity() * 2)));
+
+        int minDay = current.minDay;
+        int maxDay = current.maxDay;
+        for (int i = 0; i < count; i++) {
+            OrderLineRow row = rows.get(i);
+            int index = current.size + i;
+            int epochDay = (int) row.createdAt().toLocalDate().toEpochDay();
+
+            target.productCodes[index] = products.code(Math.toIntExact(row.productId()));
+            target.categoryCodes[index] = categoryCode(row.category());
+            target.epochDays[index] = epochDay;
+            target.quantities[index] = row.quantity();
+            target.amounts[index] = row.subtotal().setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+            target.customerCodes[index] = customers.code(Math.toIntExact(row.userId()));
+            target.orderIds[index] = Math.toIntExact(row.orderId());
+            target.statuses[index] = (byte) row.status().ordinal();
+
+            minDay = Math.min(minDay, epochDay);
+            maxDay = Math.max(maxDay, epochDay);
+        }
+
+        // Dictionary entries are written before this volatile store, so readers see every code in the new rows
+        columns = target.publish(newSize, products.size(), customers.size(), minDay, maxDay);
+        return count;
+    }
+
+    // orderIds must be sorted ascending; statuses[i] is the OrderStatus ordinal for orderIds[i].
+    // Changes go into a copy of the status column that is published with a new Columns, so a concurrent
+    // aggregate scans either the old statuses or the new ones, never a half-applied mix
+    public int updateStatuses(int[] orderIds, byte[] statuses) {
+        if (orderIds.length == 0) {
+            return 0;
+        }
+        Columns current = columns;
+        byte[] updatedStatuses = null;
+        int updated = 0;
+        for (int i = 0; i < current.size; i++) {
+            int match = Arrays.binarySearch(orderIds, current.orderIds[i]);
+            if (match >= 0 && current.statuses[i] != statuses[match]) {
+                if (updatedStatuses == null) {
+                    updatedStatuses = current.statuses.clone();
+                }
+                updatedStatuses[i] = statuses[match];
+                updated++;
+            }
+        }
+        if (updatedStatuses != null) {
+            columns = current.withStatuses(updatedStatuses);
+        }
+        return updated;
+    }
+
+    public int findCategoryCode(String category) {
+        String[] names = categoryNames;
+        for (int code = 0; code < names.length; code++) {
+            if (names[code].equals(category)) {
+                return code;
+            }
+        }
+        return -1;
+    }
+
+    public String categoryName(int code) {
+        return categoryNames[code];
+    }
+
+    public Aggregation aggregate(AnalyticsDimension dimension, int fromDay, int toDay, int categoryCode, int statusMask) {
+        Columns c = columns;
+        int size = c.size;
+        int offset = 0;
+        int domain;
+        int[] keys;
+        int[] keyIds = null;
+        switch (dimension) {
+            case PRODUCT -> {
+                keys = c.productCodes;
+                domain = c.productCount;
+                keyIds = products.ids();
+            }
+            case CATEGORY -> {
+                keys = c.categoryCodes;
+                domain = categoryNames.length;
+            }
+            case DAY -> {
+                // Only the days both present and requested
+                offset = Math.max(c.minDay, fromDay);
+                domain = size == 0 ? 0 : Math.max(0, Math.min(c.maxDay, toDay) - offset + 1);
+                keys = c.epochDays;
+            }
+            case CUSTOMER -> {
+                keys = c.customerCodes;
+                domain = c.customerCount;
+                keyIds = customers.ids();
+            }
+            default -> throw new IllegalArgumentException("Unsupported dimension: " + dimension);
+        }
+
+        long[] lines = new long[domain];
+        long[] quantities = new long[domain];
+        long[] amounts = new long[domain];
+        int[] epochDays = c.epochDays;
+        int[] categories = c.categoryCodes;
+        byte[] statuses = c.statuses;
+        int[] lineQuantities = c.quantities;
+        long[] lineAmounts = c.amounts;
+
+        // Tight loop over primitive columns only; no per-row objects or boxing
+        for (int i = 0; i < size; i++) {
+            int day = epochDays[i];
+            if (day < fromDay || day > toDay
+                    || (categoryCode >= 0 && categories[i] != categoryCode)
+                    || ((statusMask >>> statuses[i]) & 1) == 0) {
+                continue;
+            }
+            int key = keys[i] - offset;
+            lines[key]++;
+            quantities[key] += lineQuantities[i];
+            amounts[key] += lineAmounts[i];
+        }
+
+        return new Aggregation(offset, keyIds, lines, quantities, amounts);
+    }
+
+    private int categoryCode(String category) {
+        Integer code = categoryCodes.get(category);
+        if (code != null) {
+            return code;
+        }
+        String[] names = Arrays.copyOf(categoryNames, categoryNames.length + 1);
+        names[names.length - 1] = category;
+        categoryCodes.put(category, names.length - 1);
+        categoryNames = names;
+        return names.length - 1;
+    }
+
+    // Slot i holds the totals for key(i): a product or customer id, a category code or an epoch day
+    public record Aggregation(int keyOffset, int[] keyIds, long[] lines, long[] quantities, long[] amountsMinor) {
+        public int key(int index) {
+            return keyIds != null ? keyIds[index] : index + keyOffset;
+        }
+    }
+
+    // Id -> dense code, appended to by the single writer. Readers only use the id array, which is replaced
+    // rather than resized in place, so codes published in a Columns always resolve
+    private static final class Dictionary {
+        private final Map<Integer, Integer> codes = new HashMap<>();
+        private volatile int[] ids = new int[16];
+
+        int code(int id) {
+            Integer code = codes.get(id);
+            if (code != null) {
+                return code;
+            }
+            int next = codes.size();
+            int[] current = ids;
+            if (next == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            current[next] = id;
+            ids = current;
+            codes.put(id, next);
+            return next;
+        }
+
+        int size() {
+            return codes.size();
+        }
+
+        int[] ids() {
+            return ids;
+        }
+    }
+
+    private static final class Columns {
+        final int size;
+        final int productCount;
+        final int customerCount;
+        final int minDay;
+        final int maxDay;
+        final int[] productCodes;
+        final int[] categoryCodes;
+        final int[] epochDays;
+        final int[] quantities;
+        final long[] amounts;
+        final int[] customerCodes;
+        final int[] orderIds;
+        final byte[] statuses;
+
+        Columns(int capacity) {
+            this(0, 0, 0, Integer.MAX_VALUE, Integer.MIN_VALUE,
+                    new int[capacity], new int[capacity], new int[capacity], new int[capacity],
+                    new long[capacity], new int[capacity], new int[capacity], new byte[capacity]);
+        }
+
+        Columns(int size, int productCount, int customerCount, int minDay, int maxDay,
+                int[] productCodes, int[] categoryCodes, int[] epochDays, int[] quantities,
+                long[] amounts, int[] customerCodes, int[] orderIds, byte[] statuses) {
+            this.size = size;
+            this.productCount = productCount;
+            this.customerCount = customerCount;
+            this.minDay = minDay;
+            this.maxDay = maxDay;
+            this.productCodes = productCodes;
+            this.categoryCodes = categoryCodes;
+            this.epochDays = epochDays;
+            this.quantities = quantities;
+            this.amounts = amounts;
+            this.customerCodes = customerCodes;
+            this.orderIds = orderIds;
+            this.statuses = statuses;
+        }
+
+        int capacity() {
+            return productCodes.length;
+        }
+
+        Columns copyWithCapacity(int capacity) {
+            return new Columns(size, productCount, customerCount, minDay, maxDay,
+                    Arrays.copyOf(productCodes, capacity),
+                    Arrays.copyOf(categoryCodes, capacity),
+                    Arrays.copyOf(epochDays, capacity),
+                    Arrays.copyOf(quantities, capacity),
+                    Arrays.copyOf(amounts, capacity),
+                    Arrays.copyOf(customerCodes, capacity),
+                    Arrays.copyOf(orderIds, capacity),
+                    Arrays.copyOf(statuses, capacity));
+        }
+
+        Columns publish(int newSize, int newProductCount, int newCustomerCount, int newMinDay, int newMaxDay) {
+            return new Columns(newSize, newProductCount, newCustomerCount, newMinDay, newMaxDay,
+                    productCodes, categoryCodes, epochDays, quantities, amounts, customerCodes, orderIds, statuses);
+        }
+
+        Columns withStatuses(byte[] newStatuses) {
+            return new Columns(size, productCount, customerCount, minDay, maxDay,
+                    productCodes, categoryCodes, epochDays, quantities, amounts, customerCodes, orderIds, newStatuses);
+        }
+    }
+}
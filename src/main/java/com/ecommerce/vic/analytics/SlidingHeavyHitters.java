@@ -0,0 +1,75 @@
+package com.ecommerce.vic.analytics;
+
+import java.util.Set;
+
+// Ring of time slices, each holding a Count-Min Sketch and a top-k candidate heap. Slices are recycled
+// as time moves on, so a window query only merges the slices it covers.
+public class SlidingHeavyHitters {
+    private final long sliceMillis;
+    private final Slice[] slices;
+    private final int depth;
+    private final int width;
+
+    public SlidingHeavyHitters(int sliceCount, long sliceMillis, int depth, int width, int capacity) {
+        this.sliceMillis = sliceMillis;
+        this.slices = new Slice[sliceCount];
+        this.depth = depth;
+        this.width = width;
+        for (int i = 0; i < sliceCount; i++) {
+            slices[i] = new Slice(new CountMinSketch(depth, width), new TopKHeap(capacity));
+        }
+    }
+
+    public int sliceCount() {
+        return slices.length;
+    }
+
+    public void add(long key, long count, long timestampMillis, long nowMillis) {
+        long sliceNumber = timestampMillis / sliceMillis;
+        if (sliceNumber <= nowMillis / sliceMillis - slices.length) {
+            return;
+        }
+        Slice slice = slices[(int) Math.floorMod(sliceNumber, (long) slices.length)];
+        if (slice.number != sliceNumber) {
+            if (slice.number > sliceNumber) {
+                return;
+            }
+            slice.reset(sliceNumber);
+        }
+        slice.sketch.add(key, count);
+        slice.candidates.offer(key, slice.sketch.estimate(key));
+    }
+
+    public CountMinSketch collect(int lastSlices, long nowMillis, Set<Long> candidates) {
+        CountMinSketch merged = new CountMinSketch(depth, width);
+        long current = nowMillis / sliceMillis;
+        for (long number = current - Math.min(lastSlices, slices.length) + 1; number <= current; number++) {
+            Slice slice = slices[(int) Math.floorMod(number, (long) slices.length)];
+            if (slice.number != number) {
+                continue;
+            }
+            merged.merge(slice.sketch);
+            for (long key : slice.candidates.keys()) {
+                candidates.add(key);
+            }
+        }
+        return merged;
+    }
+
+    private static final class Slice {
+        final CountMinSketch sketch;
+        final TopKHeap candidates;
+        long number = Long.MIN_VALUE;
+
+        Slice(CountMinSketch sketch, TopKHeap candidates) {
+            this.sketch = sketch;
+            this.candidates = candidates;
+        }
+
+        void reset(long newNumber) {
+            sketch.clear();
+            candidates.clear();
+            number = newNumber;
+        }
+    }
+}
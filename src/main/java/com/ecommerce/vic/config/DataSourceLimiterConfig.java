@@ -0,0 +1,75 @@
+package com.ecommerce.vic.config;
+
+import com.ecommerce.vic.util.ConcurrencyLimitedDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "datasource.limiter")
+@Data
+@Slf4j
+public class DataSourceLimiterConfig {
+    private boolean enabled = false;
+    // 0 means match the connection pool's maximum size
+    private int permits = 0;
+    private int maxWaiting = 1000;
+    private Duration acquireTimeout = Duration.ofSeconds(5);
+
+    // Static and lazily resolved so the post-processor does not force this class to be created before binding
+    @Bean
+    public static BeanPostProcessor dataSourceLimiterPostProcessor(
+            ObjectProvider<DataSourceLimiterConfig> config, Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConcurrencyLimitedDataSource) {
+                    return bean;
+                }
+                DataSourceLimiterConfig limiter = config.getObject();
+                if (!limiter.isEnabled()) {
+                    return bean;
+                }
+                int permits = limiter.getPermits() > 0 ? limiter.getPermits()
+                        : environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+                log.info("Limiting data source '{}' to {} concurrent connections", beanName, permits);
+                return new ConcurrencyLimitedDataSource(
+                        dataSource, permits, limiter.getMaxWaiting(), limiter.getAcquireTimeout());
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder dataSourceLimiterMetrics(DataSource dataSource) {
+        return registry -> {
+            ConcurrencyLimitedDataSource limited = unwrap(dataSource);
+            if (limited != null) {
+                Gauge.builder("datasource.limiter.available", limited, ConcurrencyLimitedDataSource::getAvailablePermits)
+                        .register(registry);
+                Gauge.builder("datasource.limiter.waiting", limited, ConcurrencyLimitedDataSource::getWaiting)
+                        .register(registry);
+            }
+        };
+    }
+
+    private static ConcurrencyLimitedDataSource unwrap(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(ConcurrencyLimitedDataSource.class)
+                    ? dataSource.unwrap(ConcurrencyLimitedDataSource.class)
+                    : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
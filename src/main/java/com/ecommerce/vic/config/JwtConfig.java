@@ -12,4 +12,6 @@ import lombok.Data;
 public class JwtConfig {
     private String secret;
     private long expiration;
+    private long refreshExpiration;
+    private int cacheSize = 10_000;
 }
@@ -0,0 +1,41 @@
+package com.ecommerce.vic.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "mail.outbox")
+@Data
+public class MailOutboxConfig {
+    // Each worker holds a DB connection only while claiming or completing a batch, never during SMTP
+    private int workers = 2;
+    private int batchSize = 50;
+    private int maxAttempts = 8;
+    private Duration initialBackoff = Duration.ofSeconds(30);
+    private Duration maxBackoff = Duration.ofHours(1);
+    // Claimed rows are pushed this far ahead so a crashed worker's batch is picked up again later
+    private Duration lease = Duration.ofMinutes(5);
+    private Duration sentRetention = Duration.ofDays(7);
+    // Kept longer than sent mail so delivery problems can be looked into; bodies are already gone by then
+    private Duration failedRetention = Duration.ofDays(30);
+    // Base64 AES key for queued bodies; derived from the JWT secret when unset
+    private String encryptionKey;
+
+    @Bean
+    public ThreadPoolTaskExecutor mailExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(workers);
+        executor.setThreadNamePrefix("mail-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(15);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,70 @@
+package com.ecommerce.vic.config;
+
+import com.ecommerce.vic.security.BoundedPasswordEncoder;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "security.password-hashing")
+@Data
+@Slf4j
+public class PasswordHashingConfig {
+    // 0 means half the available processors, so hashing can never take every core
+    private int threads = 0;
+    private int queueCapacity = 64;
+    private Duration timeout = Duration.ofSeconds(5);
+    // 0 means pick the highest cost between min and max that stays within the target latency
+    private int strength = 0;
+    private int minStrength = 10;
+    private int maxStrength = 14;
+    private Duration targetLatency = Duration.ofMillis(250);
+
+    @Bean
+    public ThreadPoolTaskExecutor passwordHashingExecutor() {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("password-hash-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean
+    public PasswordEncoder passwordEncoder(ThreadPoolTaskExecutor passwordHashingExecutor) {
+        int cost = strength > 0 ? strength : calibrateStrength();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(cost), passwordHashingExecutor, timeout);
+    }
+
+    private int calibrateStrength() {
+        long targetNanos = targetLatency.toNanos();
+        new BCryptPasswordEncoder(4).encode("warmup");
+        int chosen = minStrength;
+        for (int cost = minStrength; cost <= maxStrength; cost++) {
+            BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(cost);
+            long started = System.nanoTime();
+            encoder.encode("calibration");
+            long elapsed = System.nanoTime() - started;
+            if (elapsed > targetNanos) {
+                break;
+            }
+            chosen = cost;
+            // Each step doubles the work, so stop once the next one would clearly overshoot
+            if (elapsed * 2 > targetNanos) {
+                break;
+            }
+        }
+        log.info("BCrypt work factor set to {} for a {} ms target", chosen, targetLatency.toMillis());
+        return chosen;
+    }
+}
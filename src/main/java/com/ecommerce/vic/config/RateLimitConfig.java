@@ -0,0 +1,35 @@
+package com.ecommerce.vic.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConfigurationProperties(prefix = "rate-limit")
+@Data
+public class RateLimitConfig {
+    private boolean enabled = true;
+    // Upper bound on tracked buckets; idle ones are evicted first
+    private int maxKeys = 100_000;
+    private Duration idleExpiry = Duration.ofMinutes(15);
+    // Largest body accepted on routes with a per-email limit
+    private int maxBodyBytes = 16 * 1024;
+    private List<Route> routes = new ArrayList<>();
+
+    @Data
+    public static class Route {
+        private String pattern;
+        private Limit perIp;
+        private Limit perEmail;
+    }
+
+    @Data
+    public static class Limit {
+        private int capacity;
+        private Duration period;
+    }
+}
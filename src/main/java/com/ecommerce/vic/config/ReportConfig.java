@@ -0,0 +1,43 @@
+package com.ecommerce.vic.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+@ConfigurationProperties(prefix = "reports")
+@Data
+public class ReportConfig {
+    // Kept well below the Hikari pool size so report fan-out cannot starve request traffic
+    private int maxParallelism = 2;
+    private int minBucketsPerPartition = 24;
+    private int maxBuckets = 10_000;
+
+    @Bean
+    public ThreadPoolTaskExecutor reportExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxParallelism);
+        executor.setMaxPoolSize(maxParallelism);
+        executor.setQueueCapacity(maxParallelism * 16);
+        executor.setThreadNamePrefix("report-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    // Customer segmentation gets its own thread so a full recompute never takes report partition capacity.
+    // Runs are exclusive, so nothing is queued behind a run in progress
+    @Bean
+    public ThreadPoolTaskExecutor segmentationExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("segmentation-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,47 @@
+package com.ecommerce.vic.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "sms")
+@Data
+public class SmsConfig {
+    private String provider = "log";
+    private int workers = 1;
+    // Messages beyond this are dropped rather than letting a provider outage grow the heap
+    private int queueCapacity = 1_000;
+    private int maxAttempts = 5;
+    private Duration initialBackoff = Duration.ofSeconds(5);
+    private Duration maxBackoff = Duration.ofMinutes(5);
+    // Send rate allowed by the active provider
+    private int rateCapacity = 10;
+    private Duration ratePeriod = Duration.ofSeconds(1);
+    private Http http = new Http();
+
+    @Data
+    public static class Http {
+        private String url;
+        private String apiKey;
+        private int batchSize = 50;
+        private Duration connectTimeout = Duration.ofSeconds(2);
+        private Duration readTimeout = Duration.ofSeconds(5);
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor smsExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(workers);
+        executor.setThreadNamePrefix("sms-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,8 @@
+package com.ecommerce.vic.constants;
+
+public enum AnalyticsDimension {
+    PRODUCT,
+    CATEGORY,
+    DAY,
+    CUSTOMER
+}
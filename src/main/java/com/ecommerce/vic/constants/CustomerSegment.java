@@ -0,0 +1,11 @@
+package com.ecommerce.vic.constants;
+
+public enum CustomerSegment {
+    CHAMPIONS,
+    LOYAL,
+    POTENTIAL_LOYALIST,
+    NEW_CUSTOMER,
+    AT_RISK,
+    HIBERNATING,
+    LOST
+}
@@ -0,0 +1,7 @@
+package com.ecommerce.vic.constants;
+
+public enum ReportGranularity {
+    HOUR,
+    DAY,
+    WEEK
+}
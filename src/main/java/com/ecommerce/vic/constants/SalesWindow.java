@@ -0,0 +1,8 @@
+package com.ecommerce.vic.constants;
+
+public enum SalesWindow {
+    HOUR,
+    DAY,
+    WEEK,
+    MONTH
+}
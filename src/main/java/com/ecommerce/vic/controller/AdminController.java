@@ -2,10 +2,24 @@ package com.ecommerce.vic.controller;
 
 import com.ecommerce.vic.dto.order.OrderResponse;
 import com.ecommerce.vic.dto.order.UpdateOrderStatusRequest;
+import com.ecommerce.vic.constants.AnalyticsDimension;
+import com.ecommerce.vic.constants.CustomerSegment;
+import com.ecommerce.vic.constants.OrderStatus;
+import com.ecommerce.vic.constants.ReportGranularity;
+import com.ecommerce.vic.constants.SalesWindow;
+import com.ecommerce.vic.dto.report.CustomerScoreResponse;
 import com.ecommerce.vic.dto.report.InventoryReportResponse;
+import com.ecommerce.vic.dto.report.LowStockItem;
+import com.ecommerce.vic.dto.report.OrderLineAnalyticsResponse;
 import com.ecommerce.vic.dto.report.SalesReportResponse;
+import com.ecommerce.vic.dto.report.SalesTimeSeriesResponse;
+import com.ecommerce.vic.dto.report.TopProductsResponse;
 import com.ecommerce.vic.dto.user.UserResponse;
 import com.ecommerce.vic.service.AdminService;
+import com.ecommerce.vic.service.BestSellerService;
+import com.ecommerce.vic.service.CustomerSegmentationService;
+import com.ecommerce.vic.service.OrderAnalyticsService;
+import com.ecommerce.vic.service.ReportService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -15,6 +29,8 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/admin")
@@ -22,6 +38,10 @@ import java.time.LocalDate;
 @RequiredArgsConstructor
 public class AdminController {
     private final AdminService adminService;
+    private final ReportService reportService;
+    private final OrderAnalyticsService orderAnalyticsService;
+    private final BestSellerService bestSellerService;
+    private final CustomerSegmentationService customerSegmentationService;
 
     @GetMapping("/orders")
     public ResponseEntity<Page<OrderResponse>> getAllOrders(
@@ -57,8 +77,58 @@ public class AdminController {
         return ResponseEntity.ok(adminService.generateSalesReport(startDate, endDate));
     }
 
+    @GetMapping("/reports/sales/timeseries")
+    public ResponseEntity<SalesTimeSeriesResponse> getSalesTimeSeries(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "DAY") ReportGranularity granularity) {
+        return ResponseEntity.ok(reportService.generateSalesTimeSeries(startDate, endDate, granularity));
+    }
+
     @GetMapping("/reports/inventory")
     public ResponseEntity<InventoryReportResponse> getInventoryReport() {
         return ResponseEntity.ok(adminService.generateInventoryReport());
     }
+
+    @GetMapping("/reports/low-stock")
+    public ResponseEntity<List<LowStockItem>> getLowStockItems() {
+        return ResponseEntity.ok(adminService.getLowStockItems());
+    }
+
+    @GetMapping("/reports/order-lines")
+    public ResponseEntity<OrderLineAnalyticsResponse> getOrderLineAnalytics(
+            @RequestParam(defaultValue = "PRODUCT") AnalyticsDimension groupBy,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) List<OrderStatus> status,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(orderAnalyticsService.aggregate(groupBy, startDate, endDate, category, status, limit));
+    }
+
+    @GetMapping("/reports/top-products")
+    public ResponseEntity<TopProductsResponse> getTopProducts(
+            @RequestParam(defaultValue = "DAY") SalesWindow window,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(bestSellerService.getTopProducts(window, limit));
+    }
+
+    @GetMapping("/customers/segments")
+    public ResponseEntity<Map<CustomerSegment, Long>> getCustomerSegmentCounts() {
+        return ResponseEntity.ok(customerSegmentationService.getSegmentCounts());
+    }
+
+    @GetMapping("/customers/segments/{segment}")
+    public ResponseEntity<Page<CustomerScoreResponse>> getCustomersInSegment(
+            @PathVariable CustomerSegment segment,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(customerSegmentationService.getCustomersInSegment(segment, page, size));
+    }
+
+    @PostMapping("/customers/segments/recompute")
+    public ResponseEntity<Void> recomputeCustomerSegments() {
+        customerSegmentationService.triggerRecompute();
+        return ResponseEntity.accepted().build();
+    }
 }
@@ -7,6 +7,7 @@ import com.ecommerce.vic.dto.auth.VerificationRequest;
 import com.ecommerce.vic.dto.auth.PasswordResetRequest;
 import com.ecommerce.vic.dto.auth.PasswordResetConfirmation;
 import com.ecommerce.vic.dto.auth.AdminInviteRequest;
+import com.ecommerce.vic.dto.auth.RefreshTokenRequest;
 import com.ecommerce.vic.service.AuthenticationService;
 import com.ecommerce.vic.service.VerificationService;
 import jakarta.validation.Valid;
@@ -34,6 +35,17 @@ public class AuthenticationController {
         return ResponseEntity.ok(authenticationService.register(request));
     }
 
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthenticationResponse> refresh(@RequestBody @Valid RefreshTokenRequest request) {
+        return ResponseEntity.ok(authenticationService.refresh(request));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestBody(required = false) @Valid RefreshTokenRequest request) {
+        authenticationService.logout(request);
+        return ResponseEntity.noContent().build();
+    }
+
     @PostMapping("/verify/email")
     public ResponseEntity<Void> verifyEmail(@Valid @RequestBody VerificationRequest request) {
         verificationService.verifyEmail(request.email(), request.code());
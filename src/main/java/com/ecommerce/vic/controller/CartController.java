@@ -1,6 +1,7 @@
 package com.ecommerce.vic.controller;
 
 import com.ecommerce.vic.dto.cart.AddToCartRequest;
+import com.ecommerce.vic.dto.cart.BulkCartUpdateRequest;
 import com.ecommerce.vic.dto.cart.CartResponse;
 import com.ecommerce.vic.dto.cart.UpdateCartItemRequest;
 import com.ecommerce.vic.service.CartService;
@@ -25,6 +26,12 @@ public class CartController {
         return ResponseEntity.ok(cartService.addToCart(request));
     }
 
+    // Applies every operation or none of them, e.g. a reorder or a bundle in one request
+    @PatchMapping("/items")
+    public ResponseEntity<CartResponse> updateCartItems(@Valid @RequestBody BulkCartUpdateRequest request) {
+        return ResponseEntity.ok(cartService.applyOperations(request.operations()));
+    }
+
     @PutMapping("/items/{itemId}")
     public ResponseEntity<CartResponse> updateCartItem(
             @PathVariable Long itemId,
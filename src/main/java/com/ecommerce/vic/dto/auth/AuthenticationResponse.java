@@ -1,11 +1,15 @@
 package com.ecommerce.vic.dto.auth;
 
 import lombok.Builder;
+import lombok.Getter;
 
 @Builder
+@Getter
 public class AuthenticationResponse{
     String token;
 
+    String refreshToken;
+
     @Builder.Default
     boolean requiresVerification = false;
 
@@ -0,0 +1,13 @@
+package com.ecommerce.vic.dto.cart;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BulkCartUpdateRequest(
+        @NotEmpty(message = "Operations cannot be empty")
+        @Size(max = 100, message = "At most 100 operations per request")
+        List<@Valid CartItemOperation> operations
+) {}
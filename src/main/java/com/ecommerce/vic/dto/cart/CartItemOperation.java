@@ -0,0 +1,37 @@
+package com.ecommerce.vic.dto.cart;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+public record CartItemOperation(
+        @NotNull(message = "Operation type is required")
+        Type type,
+
+        // Required for ADD
+        Long productId,
+
+        // Required for UPDATE and REMOVE
+        Long itemId,
+
+        @Min(value = 1, message = "Quantity must be at least 1")
+        Integer quantity
+) {
+    public enum Type {
+        ADD,
+        UPDATE,
+        REMOVE
+    }
+
+    @AssertTrue(message = "ADD needs productId and quantity, UPDATE needs itemId and quantity, REMOVE needs itemId")
+    public boolean isComplete() {
+        if (type == null) {
+            return true;
+        }
+        return switch (type) {
+            case ADD -> productId != null && quantity != null;
+            case UPDATE -> itemId != null && quantity != null;
+            case REMOVE -> itemId != null;
+        };
+    }
+}
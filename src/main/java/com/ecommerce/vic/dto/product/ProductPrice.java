@@ -0,0 +1,9 @@
+package com.ecommerce.vic.dto.product;
+
+import java.math.BigDecimal;
+
+public record ProductPrice(
+        Long productId,
+        BigDecimal price,
+        long priceVersion
+) {}
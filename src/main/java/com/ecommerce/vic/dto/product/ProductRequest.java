@@ -27,5 +27,8 @@ public record ProductRequest(
         String category,
 
         @NotBlank(message = "Size is required")
-        String size
+        String size,
+
+        @PositiveOrZero(message = "Reorder point cannot be negative")
+        Integer reorderPoint
 ) {}
@@ -9,6 +9,7 @@ public record ProductResponse(
         String description,
         BigDecimal price,
         Integer stockQuantity,
+        Integer reorderPoint,
         String imageUrl,
         String category,
         String size,
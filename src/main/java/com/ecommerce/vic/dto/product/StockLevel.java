@@ -0,0 +1,8 @@
+package com.ecommerce.vic.dto.product;
+
+public record StockLevel(
+        Long productId,
+        String name,
+        int stockQuantity,
+        Integer reorderPoint
+) {}
@@ -0,0 +1,11 @@
+package com.ecommerce.vic.dto.report;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record CustomerOrderSummary(
+        Long userId,
+        LocalDateTime lastOrderAt,
+        long orderCount,
+        BigDecimal totalSpent
+) {}
@@ -0,0 +1,18 @@
+package com.ecommerce.vic.dto.report;
+
+import com.ecommerce.vic.constants.CustomerSegment;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record CustomerScoreResponse(
+        Long userId,
+        int recencyDays,
+        int frequency,
+        BigDecimal monetary,
+        int recencyScore,
+        int frequencyScore,
+        int monetaryScore,
+        CustomerSegment segment,
+        LocalDateTime computedAt
+) {}
@@ -0,0 +1,11 @@
+package com.ecommerce.vic.dto.report;
+
+import java.time.LocalDateTime;
+
+public record LowStockItem(
+        Long productId,
+        String name,
+        int stockQuantity,
+        int reorderPoint,
+        LocalDateTime since
+) {}
@@ -0,0 +1,22 @@
+package com.ecommerce.vic.dto.report;
+
+import com.ecommerce.vic.constants.AnalyticsDimension;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record OrderLineAnalyticsResponse(
+        AnalyticsDimension groupBy,
+        LocalDate startDate,
+        LocalDate endDate,
+        long matchedLines,
+        long totalQuantity,
+        BigDecimal totalAmount,
+        List<OrderLineGroup> groups,
+        int snapshotLines,
+        @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+        LocalDateTime snapshotRefreshedAt
+) {}
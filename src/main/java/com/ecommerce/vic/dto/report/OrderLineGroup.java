@@ -0,0 +1,10 @@
+package com.ecommerce.vic.dto.report;
+
+import java.math.BigDecimal;
+
+public record OrderLineGroup(
+        String key,
+        long lines,
+        long quantity,
+        BigDecimal amount
+) {}
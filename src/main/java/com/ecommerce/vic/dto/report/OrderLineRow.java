@@ -0,0 +1,18 @@
+package com.ecommerce.vic.dto.report;
+
+import com.ecommerce.vic.constants.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record OrderLineRow(
+        Long itemId,
+        Long orderId,
+        Long productId,
+        String category,
+        Long userId,
+        LocalDateTime createdAt,
+        Integer quantity,
+        BigDecimal subtotal,
+        OrderStatus status
+) {}
@@ -0,0 +1,13 @@
+package com.ecommerce.vic.dto.report;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record SalesTimeSeriesPoint(
+        @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+        LocalDateTime periodStart,
+        long orderCount,
+        BigDecimal revenue
+) {}
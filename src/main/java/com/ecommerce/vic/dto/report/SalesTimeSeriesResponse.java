@@ -0,0 +1,16 @@
+package com.ecommerce.vic.dto.report;
+
+import com.ecommerce.vic.constants.ReportGranularity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public record SalesTimeSeriesResponse(
+        LocalDate startDate,
+        LocalDate endDate,
+        ReportGranularity granularity,
+        BigDecimal totalRevenue,
+        long totalOrders,
+        List<SalesTimeSeriesPoint> points
+) {}
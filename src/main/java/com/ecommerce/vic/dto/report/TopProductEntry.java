@@ -0,0 +1,7 @@
+package com.ecommerce.vic.dto.report;
+
+public record TopProductEntry(
+        Long productId,
+        String name,
+        long estimatedQuantity
+) {}
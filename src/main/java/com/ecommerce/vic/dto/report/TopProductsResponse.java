@@ -0,0 +1,14 @@
+package com.ecommerce.vic.dto.report;
+
+import com.ecommerce.vic.constants.SalesWindow;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record TopProductsResponse(
+        SalesWindow window,
+        @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+        LocalDateTime generatedAt,
+        List<TopProductEntry> products
+) {}
@@ -0,0 +1,12 @@
+package com.ecommerce.vic.event;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record CartAbandonedEvent(
+        Long userId,
+        Long cartId,
+        BigDecimal subtotal,
+        int totalItems,
+        LocalDateTime lastModifiedAt
+) {}
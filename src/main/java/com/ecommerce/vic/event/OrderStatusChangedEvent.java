@@ -0,0 +1,35 @@
+package com.ecommerce.vic.event;
+
+import com.ecommerce.vic.constants.OrderStatus;
+import com.ecommerce.vic.model.Order;
+import com.ecommerce.vic.model.OrderItem;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public record OrderStatusChangedEvent(
+        Long orderId,
+        String orderNumber,
+        Long userId,
+        OrderStatus previousStatus,
+        OrderStatus newStatus,
+        Map<Long, Integer> productQuantities,
+        LocalDateTime changedAt
+) {
+    public static OrderStatusChangedEvent of(Order order, OrderStatus previousStatus) {
+        return new OrderStatusChangedEvent(
+                order.getId(),
+                order.getOrderNumber(),
+                order.getUser().getUserId(),
+                previousStatus,
+                order.getStatus(),
+                order.getOrderItems().stream()
+                        .collect(Collectors.toMap(
+                                item -> item.getProduct().getProductId(),
+                                OrderItem::getQuantity,
+                                Integer::sum)),
+                LocalDateTime.now()
+        );
+    }
+}
@@ -0,0 +1,4 @@
+package com.ecommerce.vic.event;
+
+public record OutboundEmailQueuedEvent(Long emailId) {
+}
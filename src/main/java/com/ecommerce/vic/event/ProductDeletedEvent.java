@@ -0,0 +1,3 @@
+package com.ecommerce.vic.event;
+
+public record ProductDeletedEvent(Long productId) {}
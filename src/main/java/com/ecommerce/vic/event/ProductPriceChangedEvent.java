@@ -0,0 +1,5 @@
+package com.ecommerce.vic.event;
+
+import java.math.BigDecimal;
+
+public record ProductPriceChangedEvent(Long productId, BigDecimal price, long priceVersion) {}
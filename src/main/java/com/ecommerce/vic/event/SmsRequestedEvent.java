@@ -0,0 +1,4 @@
+package com.ecommerce.vic.event;
+
+public record SmsRequestedEvent(String phoneNumber, String body) {
+}
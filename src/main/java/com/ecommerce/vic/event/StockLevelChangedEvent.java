@@ -0,0 +1,21 @@
+package com.ecommerce.vic.event;
+
+import com.ecommerce.vic.model.Product;
+
+public record StockLevelChangedEvent(
+        Long productId,
+        String productName,
+        int previousQuantity,
+        int currentQuantity,
+        Integer reorderPoint
+) {
+    public static StockLevelChangedEvent of(Product product, int previousQuantity) {
+        return new StockLevelChangedEvent(
+                product.getProductId(),
+                product.getName(),
+                previousQuantity,
+                product.getStockQuantity(),
+                product.getReorderPoint()
+        );
+    }
+}
@@ -0,0 +1,11 @@
+package com.ecommerce.vic.event;
+
+public record UserAccountChangedEvent(Long userId, String email, Change change) {
+
+    public enum Change {
+        PROFILE,
+        CREDENTIALS,
+        VERIFICATION,
+        DELETED
+    }
+}
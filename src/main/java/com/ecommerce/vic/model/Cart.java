@@ -5,11 +5,12 @@ import jakarta.persistence.*;
 import lombok.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "carts")
+@Table(name = "carts", indexes = @Index(name = "idx_carts_last_modified", columnList = "lastModifiedAt"))
 @Getter
 @Setter
 @Builder
@@ -20,7 +21,8 @@ public class Cart {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @OneToOne
+    // Lazy so loading a cart does not drag in the user and, through it, the user's other associations
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
@@ -35,4 +37,11 @@ public class Cart {
     @Column(nullable = false)
     @Builder.Default
     private Integer totalItems = 0;
+
+    // Written by the cart store on every flush; the abandoned cart sweep keys off it
+    @Column(columnDefinition = "timestamp(6) default now()")
+    private LocalDateTime lastModifiedAt;
+
+    // Cleared whenever the cart changes, so each period of inactivity gets at most one reminder
+    private LocalDateTime remindedAt;
 }
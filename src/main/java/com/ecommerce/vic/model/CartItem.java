@@ -33,4 +33,7 @@ public class CartItem {
 
     @Column(nullable = false)
     private BigDecimal subtotal;
+
+    // Product price version the unit price was taken at; null for lines priced before versions existed
+    private Long priceVersion;
 }
@@ -0,0 +1,47 @@
+package com.ecommerce.vic.model;
+
+import com.ecommerce.vic.constants.CustomerSegment;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "customer_scores", indexes = @Index(name = "idx_customer_scores_segment", columnList = "segment"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerScore {
+    @Id
+    private Long userId;
+
+    @Column(nullable = false)
+    private Integer recencyDays;
+
+    @Column(nullable = false)
+    private Integer frequency;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal monetary;
+
+    @Column(nullable = false)
+    private Integer recencyScore;
+
+    @Column(nullable = false)
+    private Integer frequencyScore;
+
+    @Column(nullable = false)
+    private Integer monetaryScore;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private CustomerSegment segment;
+
+    @Column(nullable = false)
+    private LocalDateTime computedAt;
+}
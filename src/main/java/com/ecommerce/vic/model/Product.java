@@ -27,9 +27,18 @@ public class Product {
     @Column(nullable = false)
     private BigDecimal price;
 
+    // Bumped on every price change; carts compare it with the version each line was priced at.
+    // Only ever changed by ProductRepository.updatePrice, so saving a stale entity cannot roll it back
+    @Column(nullable = false, updatable = false, columnDefinition = "bigint default 0")
+    @Builder.Default
+    private long priceVersion = 0L;
+
     @Column(nullable = false)
     private Integer stockQuantity;
 
+    // Null falls back to inventory.default-reorder-point
+    private Integer reorderPoint;
+
     private String imageUrl;
 
     @Column(nullable = false)
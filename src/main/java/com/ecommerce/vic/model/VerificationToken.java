@@ -1,29 +1,37 @@
 package com.ecommerce.vic.model;
 
+import com.ecommerce.vic.util.Hashing;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
 
+// Tokens are looked up by (user, type) and matched on a digest bound to both, so short SMS codes never
+// need to be unique and the plaintext is never stored
 @Entity
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "verification_tokens")
+@Table(name = "verification_tokens", indexes = {
+        @Index(name = "idx_verification_tokens_user_type", columnList = "user_id, tokenType, used, expiryDate"),
+        @Index(name = "idx_verification_tokens_expiry", columnList = "expiryDate")
+})
 public class VerificationToken {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, unique = true)
-    private String token;
+    @Column(nullable = false, length = 64)
+    private String tokenHash;
 
-    @OneToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
+    @ToString.Exclude
     private User user;
 
     @Column(nullable = false)
@@ -45,4 +53,8 @@ public class VerificationToken {
     public boolean isExpired() {
         return LocalDateTime.now().isAfter(expiryDate);
     }
+
+    public static String hash(Long userId, TokenType tokenType, String token) {
+        return Hashing.sha256Hex(tokenType.name() + ':' + userId + ':' + token);
+    }
 }
@@ -0,0 +1,160 @@
+package com.ecommerce.vic.notification;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+// A template parsed once into literal, variable and section segments. Rendering walks the segments and
+// appends straight into the caller's buffer, so no intermediate strings are built per variable.
+//   {{name}}              value, HTML-escaped in HTML templates
+//   {{{name}}}            value, never escaped
+//   {{#items}}..{{/items}} repeated per element of an Iterable of maps, once for a map or true, skipped otherwise
+public final class CompiledTemplate {
+    private final Segment[] segments;
+    private final boolean html;
+
+    private CompiledTemplate(Segment[] segments, boolean html) {
+        this.segments = segments;
+        this.html = html;
+    }
+
+    public boolean isHtml() {
+        return html;
+    }
+
+    public static CompiledTemplate compile(String source, boolean html) {
+        Deque<String> openSections = new ArrayDeque<>();
+        Deque<List<Segment>> scopes = new ArrayDeque<>();
+        scopes.push(new ArrayList<>());
+
+        int position = 0;
+        while (position < source.length()) {
+            int open = source.indexOf("{{", position);
+            if (open < 0) {
+                scopes.peek().add(new Literal(source.substring(position)));
+                break;
+            }
+            if (open > position) {
+                scopes.peek().add(new Literal(source.substring(position, open)));
+            }
+
+            boolean raw = source.startsWith("{{{", open);
+            String closing = raw ? "}}}" : "}}";
+            int close = source.indexOf(closing, open);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed tag at offset " + open);
+            }
+            String tag = source.substring(open + closing.length(), close).trim();
+            position = close + closing.length();
+
+            if (!raw && tag.startsWith("#")) {
+                openSections.push(tag.substring(1).trim());
+                scopes.push(new ArrayList<>());
+            } else if (!raw && tag.startsWith("/")) {
+                String name = tag.substring(1).trim();
+                if (openSections.isEmpty() || !openSections.peek().equals(name)) {
+                    throw new IllegalArgumentException("Unexpected closing tag {{/" + name + "}} at offset " + open);
+                }
+                openSections.pop();
+                Segment[] body = scopes.pop().toArray(Segment[]::new);
+                scopes.peek().add(new Section(name, body));
+            } else if (tag.isEmpty()) {
+                throw new IllegalArgumentException("Empty tag at offset " + open);
+            } else {
+                scopes.peek().add(new Variable(tag, html && !raw));
+            }
+        }
+
+        if (!openSections.isEmpty()) {
+            throw new IllegalArgumentException("Unclosed section {{#" + openSections.peek() + "}}");
+        }
+        return new CompiledTemplate(scopes.pop().toArray(Segment[]::new), html);
+    }
+
+    public void renderTo(StringBuilder out, Map<String, ?> model) {
+        render(segments, out, new Scope(model, null));
+    }
+
+    private static void render(Segment[] segments, StringBuilder out, Scope scope) {
+        for (Segment segment : segments) {
+            if (segment instanceof Literal literal) {
+                out.append(literal.text());
+            } else if (segment instanceof Variable variable) {
+                appendValue(out, scope.lookup(variable.name()), variable.escape());
+            } else if (segment instanceof Section section) {
+                renderSection(section, out, scope);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void renderSection(Section section, StringBuilder out, Scope scope) {
+        Object value = scope.lookup(section.name());
+        if (value instanceof Iterable<?> items) {
+            for (Object item : items) {
+                render(section.body(), out, item instanceof Map<?, ?> map ? new Scope((Map<String, ?>) map, scope) : scope);
+            }
+        } else if (value instanceof Map<?, ?> map) {
+            render(section.body(), out, new Scope((Map<String, ?>) map, scope));
+        } else if (Boolean.TRUE.equals(value)) {
+            render(section.body(), out, scope);
+        }
+    }
+
+    private static void appendValue(StringBuilder out, Object value, boolean escape) {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof BigDecimal decimal) {
+            out.append(decimal.toPlainString());
+            return;
+        }
+        if (value instanceof Number || value instanceof Boolean) {
+            out.append(value);
+            return;
+        }
+        CharSequence text = value instanceof CharSequence chars ? chars : value.toString();
+        if (!escape) {
+            out.append(text);
+            return;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> out.append("&amp;");
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    private sealed interface Segment permits Literal, Variable, Section {
+    }
+
+    private record Literal(String text) implements Segment {
+    }
+
+    private record Variable(String name, boolean escape) implements Segment {
+    }
+
+    private record Section(String name, Segment[] body) implements Segment {
+    }
+
+    private record Scope(Map<String, ?> values, Scope parent) {
+        Object lookup(String name) {
+            for (Scope scope = this; scope != null; scope = scope.parent) {
+                Object value = scope.values.get(name);
+                if (value != null) {
+                    return value;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.ecommerce.vic.notification;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Compiles every template under the configured location once and serves renders from the compiled form.
+// Files are named <template>[_<locale>].<part>, where part is subject, txt or html; a lookup for fr_CA
+// falls back to fr and then to the unlocalised template.
+@Component
+@Slf4j
+public class NotificationTemplates {
+    private static final int INITIAL_BUFFER = 4 * 1024;
+    // Buffers that grew past this for one large render are dropped rather than kept per thread
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    private final ResourcePatternResolver resourceResolver;
+    private final String location;
+    private final boolean watch;
+    private final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(() -> new StringBuilder(INITIAL_BUFFER));
+    private volatile Map<String, Template> templates = Map.of();
+    private volatile long loadedFingerprint;
+
+    public NotificationTemplates(
+            ResourcePatternResolver resourceResolver,
+            @Value("${notifications.templates.location:classpath:/notifications/}") String location,
+            @Value("${notifications.templates.watch:false}") boolean watch) {
+        this.resourceResolver = resourceResolver;
+        this.location = location.endsWith("/") ? location : location + "/";
+        this.watch = watch;
+    }
+
+    @PostConstruct
+    public void load() {
+        Resource[] resources = listResources();
+        templates = compileAll(resources);
+        loadedFingerprint = fingerprint(resources);
+        log.info("Compiled {} notification templates from {}", templates.size(), location);
+    }
+
+    // Only useful when templates live on the filesystem; classpath templates cannot change at runtime
+    @Scheduled(fixedDelayString = "${notifications.templates.check-interval-ms:5000}")
+    public void reloadIfChanged() {
+        if (!watch) {
+            return;
+        }
+        try {
+            Resource[] resources = listResources();
+            long fingerprint = fingerprint(resources);
+            if (fingerprint != loadedFingerprint) {
+                templates = compileAll(resources);
+                loadedFingerprint = fingerprint;
+                log.info("Recompiled {} notification templates after a change", templates.size());
+            }
+        } catch (RuntimeException e) {
+            // Keep serving the last good set until the broken template is fixed
+            log.error("Failed to reload notification templates", e);
+        }
+    }
+
+    public RenderedNotification render(String name, Locale locale, Map<String, ?> model) {
+        Template template = resolve(name, locale);
+        String subject = template.subject() != null ? renderToString(template.subject(), model) : null;
+        return new RenderedNotification(subject, renderToString(template.body(), model), template.body().isHtml());
+    }
+
+    private Template resolve(String name, Locale locale) {
+        Map<String, Template> current = templates;
+        Template template = null;
+        if (locale != null && !locale.getLanguage().isEmpty()) {
+            if (!locale.getCountry().isEmpty()) {
+                template = current.get(name + '_' + locale.getLanguage() + '_' + locale.getCountry());
+            }
+            if (template == null) {
+                template = current.get(name + '_' + locale.getLanguage());
+            }
+        }
+        if (template == null) {
+            template = current.get(name);
+        }
+        if (template == null) {
+            throw new IllegalArgumentException("Unknown notification template: " + name);
+        }
+        return template;
+    }
+
+    private String renderToString(CompiledTemplate template, Map<String, ?> model) {
+        StringBuilder buffer = buffers.get();
+        buffer.setLength(0);
+        template.renderTo(buffer, model);
+        String rendered = buffer.toString();
+        if (buffer.capacity() > MAX_RETAINED_BUFFER) {
+            buffers.remove();
+        }
+        return rendered;
+    }
+
+    private Resource[] listResources() {
+        try {
+            return resourceResolver.getResources(location + "*.*");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list notification templates in " + location, e);
+        }
+    }
+
+    private Map<String, Template> compileAll(Resource[] resources) {
+        Map<String, CompiledTemplate> subjects = new HashMap<>();
+        Map<String, CompiledTemplate> bodies = new HashMap<>();
+        for (Resource resource : resources) {
+            String filename = resource.getFilename();
+            int dot = filename != null ? filename.lastIndexOf('.') : -1;
+            if (dot <= 0) {
+                continue;
+            }
+            String key = filename.substring(0, dot);
+            String part = filename.substring(dot + 1);
+            try {
+                String source = resource.getContentAsString(StandardCharsets.UTF_8);
+                switch (part) {
+                    case "subject" -> subjects.put(key, CompiledTemplate.compile(source.strip(), false));
+                    case "txt" -> bodies.put(key, CompiledTemplate.compile(source, false));
+                    case "html" -> bodies.put(key, CompiledTemplate.compile(source, true));
+                    default -> log.debug("Ignoring {} in notification templates", filename);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read notification template " + filename, e);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException("Invalid notification template " + filename + ": " + e.getMessage(), e);
+            }
+        }
+
+        Map<String, Template> compiled = new HashMap<>();
+        bodies.forEach((key, body) -> compiled.put(key, new Template(subjects.get(key), body)));
+        subjects.keySet().stream()
+                .filter(key -> !bodies.containsKey(key))
+                .forEach(key -> log.warn("Notification subject {} has no body template", key));
+        return Map.copyOf(compiled);
+    }
+
+    private long fingerprint(Resource[] resources) {
+        long fingerprint = resources.length;
+        for (Resource resource : resources) {
+            try {
+                fingerprint = fingerprint * 31 + resource.lastModified();
+            } catch (IOException e) {
+                // Resources inside a jar have no usable timestamp; they cannot change anyway
+            }
+        }
+        return fingerprint;
+    }
+
+    private record Template(CompiledTemplate subject, CompiledTemplate body) {
+    }
+}
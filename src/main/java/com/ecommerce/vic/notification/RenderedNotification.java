@@ -0,0 +1,4 @@
+package com.ecommerce.vic.notification;
+
+public record RenderedNotification(String subject, String body, boolean html) {
+}
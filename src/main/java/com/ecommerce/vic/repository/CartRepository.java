@@ -3,6 +3,8 @@ package com.ecommerce.vic.repository;
 import com.ecommerce.vic.model.Cart;
 import com.ecommerce.vic.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -10,4 +12,14 @@ import java.util.Optional;
 @Repository
 public interface CartRepository extends JpaRepository<Cart, Long> {
     Optional<Cart> findByUser(User user);
+    Optional<Cart> findByUserUserId(Long userId);
+
+    // Cart, lines and their products in one statement, however many lines the cart has
+    @Query("""
+        SELECT DISTINCT c FROM Cart c
+        LEFT JOIN FETCH c.items i
+        LEFT JOIN FETCH i.product
+        WHERE c.user.userId = :userId
+    """)
+    Optional<Cart> findWithItemsByUserId(@Param("userId") Long userId);
 }
@@ -0,0 +1,19 @@
+package com.ecommerce.vic.repository;
+
+import com.ecommerce.vic.constants.CustomerSegment;
+import com.ecommerce.vic.model.CustomerScore;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CustomerScoreRepository extends JpaRepository<CustomerScore, Long> {
+    Page<CustomerScore> findBySegment(CustomerSegment segment, Pageable pageable);
+
+    @Query("SELECT s.segment, COUNT(s) FROM CustomerScore s GROUP BY s.segment")
+    List<Object[]> countBySegment();
+}
@@ -1,26 +1,34 @@
 package com.ecommerce.vic.repository;
 
 import com.ecommerce.vic.dto.order.OrderStats;
+import com.ecommerce.vic.dto.report.CustomerOrderSummary;
+import com.ecommerce.vic.dto.report.OrderLineRow;
 import com.ecommerce.vic.model.Order;
 import com.ecommerce.vic.model.User;
 import com.ecommerce.vic.constants.OrderStatus;
 import io.micrometer.observation.ObservationFilter;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     Optional<Order> findByOrderNumber(String orderNumber);
     Page<Order> findByUserOrderByCreatedAtDesc(User user, Pageable pageable);
+    Page<Order> findByUserUserIdOrderByCreatedAtDesc(Long userId, Pageable pageable);
     Page<Order> findByStatus(OrderStatus status, Pageable pageable);
     Page<Order> findByUserAndStatus(User user, OrderStatus status, Pageable pageable);
     boolean existsByUserAndStatusNot(User user, OrderStatus status);
@@ -46,6 +54,86 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
             @Param("endDate") LocalDateTime endDate
     );
 
+    // Revenue and order count per date_trunc bucket (hour, day, week) for a half-open range
+    @Query(value = """
+        SELECT date_trunc(CAST(:unit AS text), o.created_at) AS bucket,
+               COUNT(*) AS order_count,
+               COALESCE(SUM(o.total_amount), 0) AS revenue
+        FROM orders o
+        WHERE o.status = :status
+        AND o.created_at >= :from
+        AND o.created_at < :to
+        GROUP BY 1
+        ORDER BY 1
+    """, nativeQuery = true)
+    List<Object[]> sumSalesByPeriod(
+            @Param("unit") String unit,
+            @Param("status") String status,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to
+    );
+
+    // Keyset-paged order lines for the analytics snapshot
+    @Query("""
+        SELECT new com.ecommerce.vic.dto.report.OrderLineRow(
+            oi.id, o.id, p.productId, p.category, o.user.userId, o.createdAt, oi.quantity, oi.subtotal, o.status
+        )
+        FROM OrderItem oi
+        JOIN oi.order o
+        JOIN oi.product p
+        WHERE oi.id > :afterId
+        ORDER BY oi.id
+    """)
+    List<OrderLineRow> findOrderLinesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("""
+        SELECT new com.ecommerce.vic.dto.report.OrderLineRow(
+            oi.id, o.id, p.productId, p.category, o.user.userId, o.createdAt, oi.quantity, oi.subtotal, o.status
+        )
+        FROM OrderItem oi
+        JOIN oi.order o
+        JOIN oi.product p
+        WHERE oi.id IN :ids
+    """)
+    List<OrderLineRow> findOrderLinesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT o.id, o.status FROM Order o WHERE o.updatedAt > :since ORDER BY o.id")
+    List<Object[]> findStatusesUpdatedSince(@Param("since") LocalDateTime since);
+
+    // Completed quantities per product and hour, used to warm the best-seller tracker on startup
+    @Query(value = """
+        SELECT oi.product_id, date_trunc('hour', o.updated_at) AS hour, SUM(oi.quantity) AS quantity
+        FROM order_items oi
+        JOIN orders o ON o.id = oi.order_id
+        WHERE o.status = 'COMPLETED'
+        AND o.updated_at >= :since
+        GROUP BY 1, 2
+    """, nativeQuery = true)
+    List<Object[]> sumCompletedQuantitiesByProductAndHour(@Param("since") LocalDateTime since);
+
+    // One row per customer in user id order, read through a server-side cursor
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"))
+    @Query("""
+        SELECT new com.ecommerce.vic.dto.report.CustomerOrderSummary(
+            o.user.userId, MAX(o.createdAt), COUNT(o), SUM(o.totalAmount)
+        )
+        FROM Order o
+        WHERE o.status = :status
+        GROUP BY o.user.userId
+        ORDER BY o.user.userId
+    """)
+    Stream<CustomerOrderSummary> streamCustomerOrderSummaries(@Param("status") OrderStatus status);
+
+    // Everything order notifications render, in one round trip per batch of orders
+    @Query("""
+        SELECT DISTINCT o FROM Order o
+        JOIN FETCH o.user
+        JOIN FETCH o.orderItems i
+        JOIN FETCH i.product
+        WHERE o.id IN :ids
+    """)
+    List<Order> findWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+
     // Find recent orders for a user
     @Query("SELECT o FROM Order o WHERE o.user = :user ORDER BY o.createdAt DESC")
     List<Order> findRecentOrders(@Param("user") User user, Pageable pageable);
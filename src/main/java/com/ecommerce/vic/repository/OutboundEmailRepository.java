@@ -0,0 +1,47 @@
+package com.ecommerce.vic.repository;
+
+import com.ecommerce.vic.model.OutboundEmail;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboundEmailRepository extends JpaRepository<OutboundEmail, Long> {
+    // Rows locked by another worker are skipped rather than waited on, so workers never contend for a batch
+    @Query(value = "SELECT * FROM outbound_emails WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+            "ORDER BY next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboundEmail> lockDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    long countByStatus(OutboundEmail.Status status);
+
+    // Bodies are dropped as soon as a row settles; only the metadata is kept for the retention period
+    @Modifying
+    @Query("UPDATE OutboundEmail e SET e.status = com.ecommerce.vic.model.OutboundEmail.Status.SENT, " +
+            "e.sentAt = :now, e.lastError = null, e.body = null WHERE e.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE OutboundEmail e SET e.nextAttemptAt = :nextAttemptAt, e.lastError = :error WHERE e.id = :id")
+    int reschedule(@Param("id") Long id, @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("error") String error);
+
+    @Modifying
+    @Query("UPDATE OutboundEmail e SET e.status = com.ecommerce.vic.model.OutboundEmail.Status.FAILED, " +
+            "e.lastError = :error, e.body = null WHERE e.id = :id")
+    int markFailed(@Param("id") Long id, @Param("error") String error);
+
+    @Modifying
+    @Query("DELETE FROM OutboundEmail e WHERE e.status = com.ecommerce.vic.model.OutboundEmail.Status.SENT " +
+            "AND e.sentAt < :cutoff")
+    int deleteSentBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying
+    @Query("DELETE FROM OutboundEmail e WHERE e.status = com.ecommerce.vic.model.OutboundEmail.Status.FAILED " +
+            "AND e.createdAt < :cutoff")
+    int deleteFailedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
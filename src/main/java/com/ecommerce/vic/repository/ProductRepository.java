@@ -1,14 +1,20 @@
 package com.ecommerce.vic.repository;
 
+import com.ecommerce.vic.dto.product.ProductPrice;
+import com.ecommerce.vic.dto.product.StockLevel;
 import com.ecommerce.vic.model.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
@@ -16,6 +22,13 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     List<Product> findByStockQuantityLessThan(Integer quantity);
 
+    @Query("SELECT p FROM Product p WHERE p.stockQuantity <= COALESCE(p.reorderPoint, :defaultReorderPoint)")
+    List<Product> findAtOrBelowReorderPoint(@Param("defaultReorderPoint") int defaultReorderPoint);
+
+    @Query("SELECT new com.ecommerce.vic.dto.product.StockLevel(p.productId, p.name, p.stockQuantity, p.reorderPoint) " +
+            "FROM Product p WHERE p.productId = :id")
+    Optional<StockLevel> findStockLevel(@Param("id") Long id);
+
     @Query("SELECT p FROM Product p WHERE p.stockQuantity > 0 ORDER BY p.createdAt DESC")
     Page<Product> findAvailableProducts(Pageable pageable);
 
@@ -23,4 +36,17 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
             "LOWER(p.name) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
             "LOWER(p.description) LIKE LOWER(CONCAT('%', :query, '%'))")
     Page<Product> searchProducts(@Param("query") String query, Pageable pageable);
+
+    @Query("SELECT new com.ecommerce.vic.dto.product.ProductPrice(p.productId, p.price, p.priceVersion) " +
+            "FROM Product p WHERE p.productId IN :ids")
+    List<ProductPrice> findPricesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Single-statement bump, so concurrent edits to different prices always end on different versions
+    @Modifying
+    @Query("UPDATE Product p SET p.price = :price, p.priceVersion = p.priceVersion + 1 " +
+            "WHERE p.productId = :id AND p.price <> :price")
+    int updatePrice(@Param("id") Long id, @Param("price") BigDecimal price);
+
+    @Query("SELECT p.priceVersion FROM Product p WHERE p.productId = :id")
+    long findPriceVersion(@Param("id") Long id);
 }
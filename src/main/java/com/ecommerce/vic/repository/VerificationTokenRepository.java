@@ -1,28 +1,38 @@
 package com.ecommerce.vic.repository;
 
-import com.ecommerce.vic.model.User;
 import com.ecommerce.vic.model.VerificationToken;
-import io.micrometer.observation.ObservationFilter;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.Optional;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface VerificationTokenRepository extends JpaRepository<VerificationToken, Long> {
-    Optional<VerificationToken> findByToken(String token);
-
-    Optional<VerificationToken> findByTokenAndTokenType(String token, VerificationToken.TokenType tokenType);
+    Optional<VerificationToken> findFirstByUserUserIdAndTokenTypeAndTokenHashOrderByExpiryDateDesc(
+            Long userId,
+            VerificationToken.TokenType tokenType,
+            String tokenHash
+    );
 
-    boolean existsByUserAndTokenTypeAndUsedFalseAndExpiryDateAfter(
-            User user,
+    boolean existsByUserUserIdAndTokenTypeAndUsedFalseAndExpiryDateAfter(
+            Long userId,
             VerificationToken.TokenType tokenType,
             LocalDateTime now
     );
 
-    List<VerificationToken> findByExpiryDateBeforeAndUsed(LocalDateTime now, boolean used);
+    @Query("SELECT t FROM VerificationToken t WHERE t.user.userId = :userId AND t.used = false AND t.expiryDate > :now")
+    List<VerificationToken> findActiveByUserId(@Param("userId") Long userId, @Param("now") LocalDateTime now);
 
-    Optional<VerificationToken> findByUserAndTokenType(User user, VerificationToken.TokenType tokenType);
+    // Bounded so each chunk is a short transaction that never holds millions of row locks
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM verification_tokens WHERE id IN " +
+            "(SELECT id FROM verification_tokens WHERE expiry_date < :cutoff LIMIT :limit)", nativeQuery = true)
+    int deleteExpiredChunk(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
 }
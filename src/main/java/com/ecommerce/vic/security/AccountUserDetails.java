@@ -0,0 +1,62 @@
+package com.ecommerce.vic.security;
+
+import com.ecommerce.vic.constants.UserRole;
+import com.ecommerce.vic.model.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+// Immutable snapshot of the account fields authentication needs; safe to share from a cache because it
+// is not a CredentialsContainer, so the provider cannot erase the cached password hash
+public record AccountUserDetails(
+        Long userId,
+        String email,
+        String passwordHash,
+        UserRole role,
+        boolean enabled,
+        boolean emailVerified
+) implements UserDetails {
+
+    public static AccountUserDetails from(User user) {
+        return new AccountUserDetails(
+                user.getUserId(),
+                user.getEmail(),
+                user.getPasswordHash(),
+                user.getRole(),
+                user.isEnabled(),
+                user.isEmailVerified()
+        );
+    }
+
+    public AccountUserDetails withPasswordHash(String newPasswordHash) {
+        return new AccountUserDetails(userId, email, newPasswordHash, role, enabled, emailVerified);
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    @Override
+    public String getPassword() {
+        return passwordHash;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public String toString() {
+        return "AccountUserDetails[userId=" + userId + ", email=" + email + ", role=" + role + "]";
+    }
+}
@@ -0,0 +1,37 @@
+package com.ecommerce.vic.security;
+
+import com.ecommerce.vic.constants.UserRole;
+import com.ecommerce.vic.exception.UnauthorizedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.UUID;
+
+// Principal built from verified token claims, so resolving the caller never touches the database
+public record AuthenticatedUser(Long userId, String email, UserRole role, UUID tokenId) implements Principal {
+
+    public static AuthenticatedUser current() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user;
+        }
+        throw new UnauthorizedException("Authentication required");
+    }
+
+    public boolean isAdmin() {
+        return role == UserRole.ADMIN;
+    }
+
+    public List<GrantedAuthority> authorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
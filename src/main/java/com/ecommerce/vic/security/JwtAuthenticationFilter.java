@@ -1,5 +1,6 @@
 package com.ecommerce.vic.security;
 
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,8 +9,6 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -22,7 +21,7 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final TokenRevocationList revocationList;
 
     @Override
     protected void doFilterInternal(
@@ -40,24 +39,29 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         try {
             String jwt = authHeader.substring(7);
-            String userEmail = jwtService.extractUsername(jwt);
 
-            if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                JwtService.VerifiedToken token = jwtService.verify(jwt);
 
-                if (jwtService.isTokenValid(jwt, userDetails)) {
-                    log.debug("Valid JWT token for user: {}", userEmail);
+                if (!token.hasIdentity()) {
+                    log.warn("Rejected JWT token without identity claims");
+                } else if (revocationList.isRevoked(token)) {
+                    log.warn("Rejected revoked JWT token for user: {}", token.subject());
+                } else {
+                    AuthenticatedUser user = token.toPrincipal();
+                    log.debug("Valid JWT token for user: {}", user.email());
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
+                            user,
                             null,
-                            userDetails.getAuthorities()
+                            user.authorities()
                     );
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
-                } else {
-                    log.warn("Invalid JWT token for user: {}", userEmail);
                 }
             }
+        } catch (JwtException e) {
+            // Expired or tampered tokens are routine with short-lived access tokens
+            log.debug("Rejected JWT token: {}", e.getMessage());
         } catch (Exception e) {
             log.error("Error processing JWT token", e);
         }
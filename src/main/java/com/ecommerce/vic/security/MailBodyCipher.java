@@ -0,0 +1,76 @@
+package com.ecommerce.vic.security;
+
+import com.ecommerce.vic.config.JwtConfig;
+import com.ecommerce.vic.config.MailOutboxConfig;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+// Outbox bodies carry verification codes, reset links and temporary passwords until they are sent,
+// so they are stored AES-GCM encrypted and only decrypted by the dispatcher
+@Component
+public class MailBodyCipher {
+    private static final String PREFIX = "enc:v1:";
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int IV_BYTES = 12;
+    private static final int TAG_BITS = 128;
+
+    private final SecretKey key;
+    private final SecureRandom random = new SecureRandom();
+
+    public MailBodyCipher(MailOutboxConfig config, JwtConfig jwtConfig) {
+        String configured = config.getEncryptionKey();
+        byte[] keyBytes = configured != null && !configured.isBlank()
+                ? Base64.getDecoder().decode(configured)
+                : deriveKey(jwtConfig.getSecret());
+        this.key = new SecretKeySpec(keyBytes, "AES");
+    }
+
+    public String encrypt(String plaintext) {
+        byte[] iv = new byte[IV_BYTES];
+        random.nextBytes(iv);
+        try {
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, iv));
+            byte[] sealed = cipher.doFinal(plaintext.getBytes(StandardCharsets.UTF_8));
+            return PREFIX + Base64.getEncoder().encodeToString(
+                    ByteBuffer.allocate(iv.length + sealed.length).put(iv).put(sealed).array());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not encrypt outbound email body", e);
+        }
+    }
+
+    public String decrypt(String stored) {
+        // Rows queued before bodies were encrypted are still sent as written
+        if (!stored.startsWith(PREFIX)) {
+            return stored;
+        }
+        try {
+            byte[] data = Base64.getDecoder().decode(stored.substring(PREFIX.length()));
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, data, 0, IV_BYTES));
+            return new String(cipher.doFinal(data, IV_BYTES, data.length - IV_BYTES), StandardCharsets.UTF_8);
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Could not decrypt outbound email body", e);
+        }
+    }
+
+    // Without a dedicated key, one is derived from the JWT secret under a separate label
+    private static byte[] deriveKey(String secret) {
+        try {
+            return MessageDigest.getInstance("SHA-256")
+                    .digest(("mail-outbox:" + secret).getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
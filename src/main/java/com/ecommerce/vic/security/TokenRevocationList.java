@@ -0,0 +1,111 @@
+package com.ecommerce.vic.security;
+
+import com.ecommerce.vic.model.RevokedToken;
+import com.ecommerce.vic.repository.RevokedTokenRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-memory view of revoked access tokens, so the request path checks revocation without a query.
+// Entries only live as long as the access tokens they could affect, which keeps both maps small.
+@Component
+@Slf4j
+public class TokenRevocationList {
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final JwtService jwtService;
+    // Token id -> expiry of that token
+    private final Map<UUID, Long> revokedTokenIds = new ConcurrentHashMap<>();
+    // User id -> tokens issued up to this instant are revoked
+    private final Map<Long, Long> userCutoffs = new ConcurrentHashMap<>();
+
+    public TokenRevocationList(RevokedTokenRepository revokedTokenRepository, JwtService jwtService) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.jwtService = jwtService;
+    }
+
+    @PostConstruct
+    public void load() {
+        for (RevokedToken revoked : revokedTokenRepository.findByExpiresAtAfter(LocalDateTime.now())) {
+            remember(revoked);
+        }
+        log.info("Loaded {} revoked token ids and {} user cutoffs", revokedTokenIds.size(), userCutoffs.size());
+    }
+
+    public boolean isRevoked(JwtService.VerifiedToken token) {
+        if (!userCutoffs.isEmpty()) {
+            Long cutoff = userCutoffs.get(token.userId());
+            // Inclusive: a token stamped in the same millisecond may have been issued just before the change.
+            // Older tokens without iat_ms carry the start of their second, so they are revoked within it too
+            if (cutoff != null && token.issuedAtMillis() <= cutoff) {
+                return true;
+            }
+        }
+        return !revokedTokenIds.isEmpty() && revokedTokenIds.containsKey(token.tokenId());
+    }
+
+    public void revokeToken(Long userId, UUID tokenId) {
+        LocalDateTime now = LocalDateTime.now();
+        rememberAfterCommit(revokedTokenRepository.save(RevokedToken.builder()
+                .tokenId(tokenId.toString())
+                .userId(userId)
+                .revokedAt(now)
+                .expiresAt(now.plus(jwtService.getAccessTokenTtlMillis(), ChronoUnit.MILLIS))
+                .build()));
+    }
+
+    public void revokeAllForUser(Long userId) {
+        LocalDateTime now = LocalDateTime.now();
+        rememberAfterCommit(revokedTokenRepository.save(RevokedToken.builder()
+                .userId(userId)
+                .revokedAt(now)
+                .expiresAt(now.plus(jwtService.getAccessTokenTtlMillis(), ChronoUnit.MILLIS))
+                .build()));
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation-purge-interval-ms:600000}")
+    @Transactional
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revokedTokenIds.values().removeIf(expiresAt -> expiresAt < now);
+        userCutoffs.values().removeIf(cutoff -> cutoff + jwtService.getAccessTokenTtlMillis() < now);
+        revokedTokenRepository.deleteExpired(LocalDateTime.now());
+    }
+
+    // Callers revoke inside their own transaction (a password change, an account deletion); if it rolls back,
+    // the row is gone and this node must not keep rejecting the user's tokens either
+    private void rememberAfterCommit(RevokedToken revoked) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            remember(revoked);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                remember(revoked);
+            }
+        });
+    }
+
+    private void remember(RevokedToken revoked) {
+        if (revoked.getTokenId() != null) {
+            revokedTokenIds.put(UUID.fromString(revoked.getTokenId()), toEpochMillis(revoked.getExpiresAt()));
+        } else {
+            userCutoffs.merge(revoked.getUserId(), toEpochMillis(revoked.getRevokedAt()), Math::max);
+        }
+    }
+
+    private long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,148 @@
+package com.ecommerce.vic.service;
+
+import com.ecommerce.vic.event.CartAbandonedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Deletes carts nobody has modified for a while, and optionally announces carts going stale before that.
+// Works in keyset-ordered chunks, each in its own short transaction, so millions of stale carts never mean
+// one long-running statement or millions of row locks.
+@Service
+@Slf4j
+public class AbandonedCartSweeper {
+    private static final String SELECT_STALE_SQL = """
+            SELECT id, user_id FROM carts WHERE id > ? AND last_modified_at < ?
+            ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED
+            """;
+    private static final String DELETE_ITEMS_SQL = "DELETE FROM cart_items WHERE cart_id = ANY(?)";
+    private static final String DELETE_CARTS_SQL = "DELETE FROM carts WHERE id = ANY(?)";
+    private static final String MARK_REMINDED_SQL = """
+            UPDATE carts SET reminded_at = now() WHERE id IN (
+                SELECT id FROM carts WHERE last_modified_at < ? AND reminded_at IS NULL AND total_items > 0
+                ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED)
+            RETURNING id, user_id, subtotal, total_items, last_modified_at
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CartStore cartStore;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration maxAge;
+    private final int chunkSize;
+    private final boolean remindersEnabled;
+    private final Duration reminderAfter;
+
+    public AbandonedCartSweeper(
+            JdbcTemplate jdbcTemplate,
+            CartStore cartStore,
+            ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager,
+            @Value("${carts.abandoned.max-age:30d}") Duration maxAge,
+            @Value("${carts.abandoned.chunk-size:1000}") int chunkSize,
+            @Value("${carts.abandoned.reminders.enabled:false}") boolean remindersEnabled,
+            @Value("${carts.abandoned.reminders.after:3d}") Duration reminderAfter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cartStore = cartStore;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAge = maxAge;
+        this.chunkSize = chunkSize;
+        this.remindersEnabled = remindersEnabled;
+        this.reminderAfter = reminderAfter;
+    }
+
+    @Scheduled(cron = "${carts.abandoned.cron:0 45 3 * * *}")
+    public void sweep() {
+        if (remindersEnabled) {
+            sendReminders();
+        }
+        deleteAbandoned();
+    }
+
+    void deleteAbandoned() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(maxAge));
+        long afterId = 0;
+        long deleted = 0;
+        while (true) {
+            long from = afterId;
+            Chunk chunk = transactionTemplate.execute(status -> deleteChunk(from, cutoff));
+            if (chunk == null || chunk.scanned() == 0) {
+                break;
+            }
+            // Only after commit, so a concurrent load cannot repopulate the store with a cart that is gone
+            chunk.userIds().forEach(cartStore::evictDeleted);
+            deleted += chunk.userIds().size();
+            afterId = chunk.lastId();
+            if (chunk.scanned() < chunkSize) {
+                break;
+            }
+        }
+        log.info("Deleted {} carts untouched since {}", deleted, cutoff);
+    }
+
+    private Chunk deleteChunk(long afterId, Timestamp cutoff) {
+        List<long[]> candidates = jdbcTemplate.query(SELECT_STALE_SQL,
+                (rs, rowNum) -> new long[]{rs.getLong("id"), rs.getLong("user_id")}, afterId, cutoff, chunkSize);
+        if (candidates.isEmpty()) {
+            return new Chunk(0, afterId, List.of());
+        }
+        List<Long> cartIds = new ArrayList<>(candidates.size());
+        List<Long> userIds = new ArrayList<>(candidates.size());
+        for (long[] candidate : candidates) {
+            // A cart held by the store may be mid-edit even though its stored timestamp is old
+            if (!cartStore.isResident(candidate[1])) {
+                cartIds.add(candidate[0]);
+                userIds.add(candidate[1]);
+            }
+        }
+        if (!cartIds.isEmpty()) {
+            jdbcTemplate.update(DELETE_ITEMS_SQL, ps -> ps.setArray(1, idArray(ps.getConnection(), cartIds)));
+            jdbcTemplate.update(DELETE_CARTS_SQL, ps -> ps.setArray(1, idArray(ps.getConnection(), cartIds)));
+        }
+        return new Chunk(candidates.size(), candidates.get(candidates.size() - 1)[0], userIds);
+    }
+
+    void sendReminders() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(reminderAfter));
+        long reminded = 0;
+        List<CartAbandonedEvent> events;
+        do {
+            events = transactionTemplate.execute(status -> jdbcTemplate.query(MARK_REMINDED_SQL,
+                    (rs, rowNum) -> new CartAbandonedEvent(
+                            rs.getLong("user_id"),
+                            rs.getLong("id"),
+                            rs.getBigDecimal("subtotal"),
+                            rs.getInt("total_items"),
+                            rs.getTimestamp("last_modified_at").toLocalDateTime()),
+                    cutoff, chunkSize));
+            if (events == null) {
+                break;
+            }
+            // Published once the chunk is committed, so listeners never act on a reminder that rolled back
+            events.forEach(eventPublisher::publishEvent);
+            reminded += events.size();
+        } while (events.size() == chunkSize);
+        log.info("Published {} abandoned cart reminders", reminded);
+    }
+
+    private static Array idArray(Connection connection, List<Long> ids) throws SQLException {
+        return connection.createArrayOf("bigint", ids.toArray());
+    }
+
+    private record Chunk(int scanned, long lastId, List<Long> userIds) {}
+}
@@ -1,6 +1,7 @@
 package com.ecommerce.vic.service;
 
 import com.ecommerce.vic.dto.order.OrderResponse;
+import com.ecommerce.vic.dto.report.LowStockItem;
 import com.ecommerce.vic.dto.report.InventoryReportResponse;
 import com.ecommerce.vic.dto.report.ProductInventoryInfo;
 import com.ecommerce.vic.dto.report.SalesReportResponse;
@@ -10,6 +11,9 @@ import com.ecommerce.vic.model.OrderItem;
 import com.ecommerce.vic.model.Product;
 import com.ecommerce.vic.model.User;
 import com.ecommerce.vic.constants.OrderStatus;
+import com.ecommerce.vic.event.OrderStatusChangedEvent;
+import com.ecommerce.vic.event.StockLevelChangedEvent;
+import com.ecommerce.vic.event.UserAccountChangedEvent;
 import com.ecommerce.vic.exception.InvalidOperationException;
 import com.ecommerce.vic.exception.ResourceNotFoundException;
 import com.ecommerce.vic.mapper.OrderMapper;
@@ -18,6 +22,7 @@ import com.ecommerce.vic.repository.OrderRepository;
 import com.ecommerce.vic.repository.ProductRepository;
 import com.ecommerce.vic.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
@@ -38,6 +43,8 @@ public class AdminService {
     private final ProductRepository productRepository;
     private final OrderMapper orderMapper;
     private final UserMapper userMapper;
+    private final LowStockMonitor lowStockMonitor;
+    private final ApplicationEventPublisher eventPublisher;
 
     public Page<OrderResponse> getAllOrders(int page, int size) {
         Page<Order> orders = orderRepository.findAll(PageRequest.of(page, size));
@@ -49,7 +56,8 @@ public class AdminService {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
 
-        validateStatusTransition(order.getStatus(), newStatus);
+        OrderStatus previousStatus = order.getStatus();
+        validateStatusTransition(previousStatus, newStatus);
         order.setStatus(newStatus);
         
         // If order is cancelled, restore product stock
@@ -58,6 +66,7 @@ public class AdminService {
         }
 
         Order savedOrder = orderRepository.save(order);
+        eventPublisher.publishEvent(OrderStatusChangedEvent.of(savedOrder, previousStatus));
         return orderMapper.toOrderResponse(savedOrder);
     }
 
@@ -78,6 +87,8 @@ public class AdminService {
         }
 
         userRepository.delete(user);
+        eventPublisher.publishEvent(new UserAccountChangedEvent(
+                user.getUserId(), user.getEmail(), UserAccountChangedEvent.Change.DELETED));
     }
 
     public SalesReportResponse generateSalesReport(LocalDate startDate, LocalDate endDate) {
@@ -113,7 +124,7 @@ public class AdminService {
                         product.getName(),
                         product.getStockQuantity(),
                         product.getPrice(),
-                        calculateReorderNeeded(product.getStockQuantity())
+                        isReorderNeeded(product)
                 ))
                 .collect(Collectors.toList());
 
@@ -125,6 +136,10 @@ public class AdminService {
         );
     }
 
+    public List<LowStockItem> getLowStockItems() {
+        return lowStockMonitor.getLowStockItems();
+    }
+
     private void validateStatusTransition(OrderStatus currentStatus, OrderStatus newStatus) {
         if (currentStatus == OrderStatus.COMPLETED || currentStatus == OrderStatus.CANCELLED) {
             throw new InvalidOperationException("Cannot update status of a " + currentStatus + " order");
@@ -138,8 +153,10 @@ public class AdminService {
     private void restoreProductStock(Order order) {
         for (OrderItem item : order.getOrderItems()) {
             Product product = item.getProduct();
-            product.setStockQuantity(product.getStockQuantity() + item.getQuantity());
+            int previousQuantity = product.getStockQuantity();
+            product.setStockQuantity(previousQuantity + item.getQuantity());
             productRepository.save(product);
+            eventPublisher.publishEvent(StockLevelChangedEvent.of(product, previousQuantity));
         }
     }
 
@@ -158,9 +175,8 @@ public class AdminService {
                 ));
     }
 
-    private boolean calculateReorderNeeded(int currentStock) {
-        final int REORDER_THRESHOLD = 10;
-        return currentStock <= REORDER_THRESHOLD;
+    private boolean isReorderNeeded(Product product) {
+        return product.getStockQuantity() <= lowStockMonitor.reorderPointOf(product.getReorderPoint());
     }
 
     private BigDecimal calculateTotalInventoryValue(List<Product> products) {
@@ -169,10 +185,10 @@ public class AdminService {
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
     }
 
+    // Counted against each product's reorder point, the same rule as the live low-stock list
     private long calculateLowStockItems(List<Product> products) {
-        final int LOW_STOCK_THRESHOLD = 5;
         return products.stream()
-                .filter(product -> product.getStockQuantity() <= LOW_STOCK_THRESHOLD)
+                .filter(this::isReorderNeeded)
                 .count();
     }
 }
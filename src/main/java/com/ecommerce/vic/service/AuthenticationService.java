@@ -4,9 +4,9 @@ import java.time.LocalDateTime;
 import java.util.Random;
 import java.util.UUID;
 
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -15,6 +15,7 @@ import com.ecommerce.vic.constants.UserRole;
 import com.ecommerce.vic.dto.auth.AdminInviteRequest;
 import com.ecommerce.vic.dto.auth.AuthenticationRequest;
 import com.ecommerce.vic.dto.auth.AuthenticationResponse;
+import com.ecommerce.vic.dto.auth.RefreshTokenRequest;
 import com.ecommerce.vic.dto.auth.RegisterRequest;
 import com.ecommerce.vic.exception.CustomDisabledException;
 import com.ecommerce.vic.exception.EmailAlreadyExistsException;
@@ -23,7 +24,10 @@ import com.ecommerce.vic.model.User;
 import com.ecommerce.vic.model.VerificationToken;
 import com.ecommerce.vic.repository.UserRepository;
 import com.ecommerce.vic.repository.VerificationTokenRepository;
+import com.ecommerce.vic.security.AccountUserDetails;
+import com.ecommerce.vic.security.AuthenticatedUser;
 import com.ecommerce.vic.security.JwtService;
+import com.ecommerce.vic.security.TokenRevocationList;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -38,14 +42,18 @@ public class AuthenticationService {
     private final AuthenticationManager authenticationManager;
     private final VerificationTokenRepository tokenRepository;
     private final VerificationService verificationService;
-    private final EmailService emailService;
+    private final CustomUserDetailsService userDetailsService;
     private final UserService userService;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationList revocationList;
+    private final EmailRegistry emailRegistry;
+    private final EmailService emailService;
 
     @Transactional
     public AuthenticationResponse register(RegisterRequest request) {
         log.info("Attempting to register new user with email: {}", request.email());
         
-        if (userRepository.findByEmail(request.email()).isPresent()) {
+        if (emailRegistry.mightExist(request.email()) && userRepository.existsByEmail(request.email())) {
             log.warn("Registration failed - email already exists: {}", request.email());
             throw new EmailAlreadyExistsException("Email already registered");
         }
@@ -66,7 +74,7 @@ public class AuthenticationService {
                 .createdAt(LocalDateTime.now())
                 .build();
 
-        userRepository.save(user);
+        insertUser(user);
         verificationService.sendEmailVerification(user);
 
         log.info("Successfully registered new user with email: {}", user.getEmail());
@@ -88,12 +96,12 @@ public class AuthenticationService {
     public AuthenticationResponse authenticate(AuthenticationRequest request) {
         log.info("Authentication attempt for user: {}", request.email());
         
-        var user = userRepository.findByEmail(request.email())
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        // Served from the account cache, which the authentication provider below reads as well
+        AccountUserDetails account = userDetailsService.loadUserByUsername(request.email());
 
-        if (!user.isEmailVerified()) {
+        if (!account.emailVerified()) {
             log.warn("Authentication failed - email not verified for user: {}", request.email());
-            verificationService.sendEmailVerification(user);
+            userRepository.findById(account.userId()).ifPresent(verificationService::sendEmailVerification);
             return AuthenticationResponse.builder()
                     .requiresVerification(true)
                     .isVerified(false)
@@ -101,7 +109,7 @@ public class AuthenticationService {
                     .build();
         }
 
-        if (!user.isEnabled()) {
+        if (!account.enabled()) {
             log.warn("Authentication failed - account disabled for user: {}", request.email());
             throw new CustomDisabledException("Account is disabled");
         }
@@ -113,29 +121,55 @@ public class AuthenticationService {
                 )
         );
 
-        // Generate token only if all checks pass
-        String jwt = jwtService.generateToken(user);
+        // Generate tokens only if all checks pass
+        String jwt = jwtService.generateToken(account);
+        String refreshToken = refreshTokenService.issue(account.userId());
 
         // Update last login timestamp
-        user.setLastLoginAt(LocalDateTime.now());
-        userRepository.save(user);
+        userService.updateLastLogin(account.userId());
 
         log.info("Successfully authenticated user: {}", request.email());
         return AuthenticationResponse.builder()
                 .token(jwt)
+                .refreshToken(refreshToken)
                 .isVerified(true)
                 .message("Login successful")
                 .build();
     }
 
+    public AuthenticationResponse refresh(RefreshTokenRequest request) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.refreshToken());
+
+        User user = userRepository.findById(rotation.userId())
+                .orElseThrow(() -> new UnauthorizedException("Account no longer exists"));
+        if (!user.isEnabled()) {
+            throw new CustomDisabledException("Account is disabled");
+        }
+
+        return AuthenticationResponse.builder()
+                .token(jwtService.generateToken(user))
+                .refreshToken(rotation.refreshToken())
+                .isVerified(user.isEmailVerified())
+                .message("Token refreshed")
+                .build();
+    }
+
+    public void logout(RefreshTokenRequest request) {
+        AuthenticatedUser currentUser = AuthenticatedUser.current();
+        revocationList.revokeToken(currentUser.userId(), currentUser.tokenId());
+        if (request != null) {
+            refreshTokenService.revoke(currentUser.userId(), request.refreshToken());
+        }
+        log.info("User {} logged out", currentUser.email());
+    }
+
     @Transactional
     public void createAdmin(AdminInviteRequest request) {
-        User currentUser = userService.getCurrentUser();
-        if (currentUser.getRole() != UserRole.ADMIN) {
+        if (!AuthenticatedUser.current().isAdmin()) {
             throw new UnauthorizedException("Only admins can create new admins");
         }
 
-        if (userRepository.findByEmail(request.email()).isPresent()) {
+        if (emailRegistry.mightExist(request.email()) && userRepository.existsByEmail(request.email())) {
             throw new EmailAlreadyExistsException("Email already registered");
         }
 
@@ -153,16 +187,27 @@ public class AuthenticationService {
                 .createdAt(LocalDateTime.now())
                 .build();
 
-        userRepository.save(admin);
+        insertUser(admin);
         
         saveAdminInvitationToken(admin, token);
         
         emailService.sendAdminInvitation(admin.getEmail(), token, temporaryPassword);
     }
 
+    // The unique constraint on email catches registrations the pre-check let through, including races
+    private void insertUser(User user) {
+        try {
+            userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Registration failed - email already exists: {}", user.getEmail());
+            throw new EmailAlreadyExistsException("Email already registered");
+        }
+        emailRegistry.register(user.getEmail());
+    }
+
     private void saveAdminInvitationToken(User admin, String token) {
         VerificationToken verificationToken = VerificationToken.builder()
-                .token(token)
+                .tokenHash(VerificationToken.hash(admin.getUserId(), VerificationToken.TokenType.ADMIN_INVITATION, token))
                 .user(admin)
                 .tokenType(VerificationToken.TokenType.ADMIN_INVITATION)
                 .expiryDate(LocalDateTime.now().plusDays(7))
@@ -0,0 +1,135 @@
+package com.ecommerce.vic.service;
+
+import com.ecommerce.vic.analytics.CountMinSketch;
+import com.ecommerce.vic.analytics.SlidingHeavyHitters;
+import com.ecommerce.vic.constants.OrderStatus;
+import com.ecommerce.vic.constants.SalesWindow;
+import com.ecommerce.vic.dto.report.TopProductEntry;
+import com.ecommerce.vic.dto.report.TopProductsResponse;
+import com.ecommerce.vic.event.OrderStatusChangedEvent;
+import com.ecommerce.vic.exception.InvalidOperationException;
+import com.ecommerce.vic.model.Product;
+import com.ecommerce.vic.repository.OrderRepository;
+import com.ecommerce.vic.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@Slf4j
+public class BestSellerService {
+    private final OrderRepository orderRepository;
+    private final ProductRepository productRepository;
+    private final SlidingHeavyHitters fiveMinuteSlices;
+    private final SlidingHeavyHitters hourlySlices;
+    private final SlidingHeavyHitters dailySlices;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public BestSellerService(
+            OrderRepository orderRepository,
+            ProductRepository productRepository,
+            @Value("${analytics.top-products.capacity:100}") int capacity,
+            @Value("${analytics.top-products.sketch-depth:4}") int depth,
+            @Value("${analytics.top-products.sketch-width:1024}") int width) {
+        this.orderRepository = orderRepository;
+        this.productRepository = productRepository;
+        this.fiveMinuteSlices = new SlidingHeavyHitters(12, TimeUnit.MINUTES.toMillis(5), depth, width, capacity);
+        this.hourlySlices = new SlidingHeavyHitters(24, TimeUnit.HOURS.toMillis(1), depth, width, capacity);
+        this.dailySlices = new SlidingHeavyHitters(30, TimeUnit.DAYS.toMillis(1), depth, width, capacity);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        List<Object[]> rows = orderRepository.sumCompletedQuantitiesByProductAndHour(
+                LocalDateTime.now().minusDays(dailySlices.sliceCount()));
+        long now = System.currentTimeMillis();
+        lock.lock();
+        try {
+            for (Object[] row : rows) {
+                record(((Number) row[0]).longValue(), ((Number) row[2]).longValue(), toEpochMillis(row[1]), now);
+            }
+        } finally {
+            lock.unlock();
+        }
+        log.info("Best seller tracker warmed with {} product-hour aggregates", rows.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (event.newStatus() != OrderStatus.COMPLETED) {
+            return;
+        }
+        long timestamp = event.changedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        long now = System.currentTimeMillis();
+        lock.lock();
+        try {
+            event.productQuantities().forEach((productId, quantity) -> record(productId, quantity, timestamp, now));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public TopProductsResponse getTopProducts(SalesWindow window, int limit) {
+        if (limit < 1) {
+            throw new InvalidOperationException("Limit must be at least 1");
+        }
+        long now = System.currentTimeMillis();
+        Set<Long> candidates = new HashSet<>();
+        CountMinSketch merged;
+        lock.lock();
+        try {
+            merged = switch (window) {
+                case HOUR -> fiveMinuteSlices.collect(12, now, candidates);
+                case DAY -> hourlySlices.collect(24, now, candidates);
+                case WEEK -> dailySlices.collect(7, now, candidates);
+                case MONTH -> dailySlices.collect(30, now, candidates);
+            };
+        } finally {
+            lock.unlock();
+        }
+
+        List<long[]> ranked = candidates.stream()
+                .map(productId -> new long[]{productId, merged.estimate(productId)})
+                .filter(entry -> entry[1] > 0)
+                .sorted(Comparator.comparingLong((long[] entry) -> entry[1]).reversed())
+                .limit(limit)
+                .toList();
+
+        Map<Long, String> names = productRepository.findAllById(ranked.stream().map(entry -> entry[0]).toList())
+                .stream()
+                .collect(Collectors.toMap(Product::getProductId, Product::getName));
+
+        List<TopProductEntry> products = ranked.stream()
+                .map(entry -> new TopProductEntry(entry[0], names.get(entry[0]), entry[1]))
+                .toList();
+
+        return new TopProductsResponse(window, LocalDateTime.now(), products);
+    }
+
+    private void record(long productId, long quantity, long timestamp, long now) {
+        fiveMinuteSlices.add(productId, quantity, timestamp, now);
+        hourlySlices.add(productId, quantity, timestamp, now);
+        dailySlices.add(productId, quantity, timestamp, now);
+    }
+
+    private long toEpochMillis(Object value) {
+        LocalDateTime dateTime = value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
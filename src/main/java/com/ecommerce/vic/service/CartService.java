@@ -1,120 +1,203 @@
 package com.ecommerce.vic.service;
 
 import com.ecommerce.vic.dto.cart.*;
+import com.ecommerce.vic.dto.product.ProductPrice;
 import com.ecommerce.vic.exception.ResourceNotFoundException;
 import com.ecommerce.vic.exception.InvalidOperationException;
 import com.ecommerce.vic.model.*;
-import com.ecommerce.vic.repository.CartRepository;
 import com.ecommerce.vic.repository.ProductRepository;
-import com.ecommerce.vic.repository.UserRepository;
+import com.ecommerce.vic.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+// Carts live in CartStore and are persisted write-behind; only product lookups reach the database here
 @Service
 @RequiredArgsConstructor
 public class CartService {
-    private final CartRepository cartRepository;
+    private final CartStore cartStore;
     private final ProductRepository productRepository;
-    private final UserRepository userRepository;
+    private final ProductPriceIndex priceIndex;
 
-    @Transactional(readOnly = true)
     public CartResponse getCart() {
-        Cart cart = getOrCreateCart();
-        return mapToCartResponse(cart);
+        return cartStore.update(currentUserId(), cart -> {
+            repriceStaleLines(cart);
+            return mapToCartResponse(cart);
+        });
     }
 
-    @Transactional
     public CartResponse addToCart(AddToCartRequest request) {
-        Cart cart = getOrCreateCart();
         Product product = productRepository.findById(request.productId())
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
 
-        // Check if product is already in cart
-        CartItem existingItem = cart.getItems().stream()
-                .filter(item -> item.getProduct().getProductId().equals(request.productId()))
-                .findFirst()
-                .orElse(null);
-
-        if (existingItem != null) {
-            // Update quantity if product already exists
-            int newQuantity = existingItem.getQuantity() + request.quantity();
-            validateStock(product, newQuantity);
-            existingItem.setQuantity(newQuantity);
-            existingItem.setSubtotal(product.getPrice().multiply(BigDecimal.valueOf(newQuantity)));
-        } else {
-            // Add new item if product doesn't exist in cart
+        return cartStore.update(currentUserId(), cart -> {
+            // Check if product is already in cart
+            CartState.Line existingItem = cart.findByProduct(product.getProductId());
+
+            if (existingItem != null) {
+                // Update quantity if product already exists
+                int newQuantity = existingItem.getQuantity() + request.quantity();
+                validateStock(product, newQuantity);
+                cart.updateQuantity(existingItem, newQuantity);
+            } else {
+                // Add new item if product doesn't exist in cart
+                validateStock(product, request.quantity());
+                cart.addLine(cartStore.nextItemId(), product, request.quantity());
+            }
+
+            repriceStaleLines(cart);
+            updateCartTotals(cart);
+            return mapToCartResponse(cart);
+        });
+    }
+
+    public CartResponse updateCartItem(Long itemId, UpdateCartItemRequest request) {
+        Long userId = currentUserId();
+        Long productId = cartStore.read(userId, cart -> findItem(cart, itemId).getProductId());
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
+
+        return cartStore.update(userId, cart -> {
+            CartState.Line item = findItem(cart, itemId);
             validateStock(product, request.quantity());
-            CartItem newItem = CartItem.builder()
-                    .cart(cart)
-                    .product(product)
-                    .quantity(request.quantity())
-                    .unitPrice(product.getPrice())
-                    .subtotal(product.getPrice().multiply(BigDecimal.valueOf(request.quantity())))
-                    .build();
-            cart.getItems().add(newItem);
-        }
+            cart.updateQuantity(item, request.quantity());
 
-        updateCartTotals(cart);
-        Cart savedCart = cartRepository.save(cart);
-        return mapToCartResponse(savedCart);
+            repriceStaleLines(cart);
+            updateCartTotals(cart);
+            return mapToCartResponse(cart);
+        });
     }
 
-    @Transactional
-    public CartResponse updateCartItem(Long itemId, UpdateCartItemRequest request) {
-        Cart cart = getOrCreateCart();
-        CartItem item = cart.getItems().stream()
-                .filter(i -> i.getId().equals(itemId))
-                .findFirst()
-                .orElseThrow(() -> new ResourceNotFoundException("Cart item not found"));
-
-        validateStock(item.getProduct(), request.quantity());
-        item.setQuantity(request.quantity());
-        item.setSubtotal(item.getUnitPrice().multiply(BigDecimal.valueOf(request.quantity())));
-
-        updateCartTotals(cart);
-        Cart savedCart = cartRepository.save(cart);
-        return mapToCartResponse(savedCart);
+    // Validates the whole batch against one product query before changing anything, then recomputes totals once
+    public CartResponse applyOperations(List<CartItemOperation> operations) {
+        Long userId = currentUserId();
+        Set<Long> productIds = new HashSet<>();
+        cartStore.read(userId, cart -> {
+            for (CartItemOperation operation : operations) {
+                if (operation.type() == CartItemOperation.Type.ADD) {
+                    productIds.add(operation.productId());
+                } else if (operation.type() == CartItemOperation.Type.UPDATE) {
+                    productIds.add(findItem(cart, operation.itemId()).getProductId());
+                }
+            }
+            return null;
+        });
+        Map<Long, Product> products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+
+        return cartStore.update(userId, cart -> {
+            // Resulting quantity per product; 0 marks a line to remove
+            Map<Long, Integer> targets = new LinkedHashMap<>();
+            cart.getLines().forEach(line -> targets.put(line.getProductId(), line.getQuantity()));
+
+            for (CartItemOperation operation : operations) {
+                switch (operation.type()) {
+                    case ADD -> {
+                        if (!products.containsKey(operation.productId())) {
+                            throw new ResourceNotFoundException("Product not found: " + operation.productId());
+                        }
+                        targets.merge(operation.productId(), operation.quantity(), Integer::sum);
+                    }
+                    case UPDATE -> targets.put(findItem(cart, operation.itemId()).getProductId(), operation.quantity());
+                    case REMOVE -> {
+                        CartState.Line line = cart.findLine(operation.itemId());
+                        if (line != null) {
+                            targets.put(line.getProductId(), 0);
+                        }
+                    }
+                }
+            }
+
+            targets.forEach((productId, quantity) -> {
+                CartState.Line line = cart.findByProduct(productId);
+                if (quantity > 0 && (line == null || line.getQuantity() != quantity)) {
+                    Product product = products.get(productId);
+                    if (product == null) {
+                        // Item changed concurrently after the products were read
+                        throw new ResourceNotFoundException("Cart item not found");
+                    }
+                    validateStock(product, quantity);
+                }
+            });
+
+            targets.forEach((productId, quantity) -> {
+                CartState.Line line = cart.findByProduct(productId);
+                if (quantity == 0) {
+                    if (line != null) {
+                        cart.removeLine(line.getItemId());
+                    }
+                } else if (line == null) {
+                    cart.addLine(cartStore.nextItemId(), products.get(productId), quantity);
+                } else if (line.getQuantity() != quantity) {
+                    cart.updateQuantity(line, quantity);
+                }
+            });
+
+            repriceStaleLines(cart);
+            updateCartTotals(cart);
+            return mapToCartResponse(cart);
+        });
     }
 
-    @Transactional
     public CartResponse removeFromCart(Long itemId) {
-        Cart cart = getOrCreateCart();
-        cart.getItems().removeIf(item -> item.getId().equals(itemId));
+        return cartStore.update(currentUserId(), cart -> {
+            cart.removeLine(itemId);
 
-        updateCartTotals(cart);
-        Cart savedCart = cartRepository.save(cart);
-        return mapToCartResponse(savedCart);
+            repriceStaleLines(cart);
+            updateCartTotals(cart);
+            return mapToCartResponse(cart);
+        });
     }
 
-    @Transactional
     public void clearCart() {
-        Cart cart = getOrCreateCart();
-        cart.getItems().clear();
-        updateCartTotals(cart);
-        cartRepository.save(cart);
+        cartStore.update(currentUserId(), cart -> {
+            cart.clear();
+            updateCartTotals(cart);
+            return null;
+        });
     }
 
-    private Cart getOrCreateCart() {
-        User currentUser = getCurrentUser();
-        return cartRepository.findByUser(currentUser)
-                .orElseGet(() -> {
-                    Cart newCart = Cart.builder()
-                            .user(currentUser)
-                            .build();
-                    return cartRepository.save(newCart);
-                });
+    private Long currentUserId() {
+        return AuthenticatedUser.current().userId();
     }
 
-    private User getCurrentUser() {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByEmail(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    private CartState.Line findItem(CartState cart, Long itemId) {
+        CartState.Line item = cart.findLine(itemId);
+        if (item == null) {
+            throw new ResourceNotFoundException("Cart item not found");
+        }
+        return item;
+    }
+
+    // Only lines whose product price version moved since they were priced are touched
+    private void repriceStaleLines(CartState cart) {
+        if (cart.getLines().isEmpty()) {
+            return;
+        }
+        Set<Long> productIds = new HashSet<>();
+        cart.getLines().forEach(line -> productIds.add(line.getProductId()));
+        Map<Long, ProductPrice> prices = priceIndex.getPrices(productIds);
+
+        boolean repriced = false;
+        for (CartState.Line line : cart.getLines()) {
+            ProductPrice current = prices.get(line.getProductId());
+            // Only ever forward: a line priced from a fresher row than the index holds must not be rolled back
+            if (current != null && current.priceVersion() > line.getPriceVersion()) {
+                cart.reprice(line, current.price(), current.priceVersion());
+                repriced = true;
+            }
+        }
+        if (repriced) {
+            updateCartTotals(cart);
+        }
     }
 
     private void validateStock(Product product, int requestedQuantity) {
@@ -124,26 +207,25 @@ public class CartService {
         }
     }
 
-    private void updateCartTotals(Cart cart) {
-        BigDecimal subtotal = cart.getItems().stream()
-                .map(CartItem::getSubtotal)
+    void updateCartTotals(CartState cart) {
+        BigDecimal subtotal = cart.getLines().stream()
+                .map(CartState.Line::getSubtotal)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
 
-        int totalItems = cart.getItems().stream()
-                .mapToInt(CartItem::getQuantity)
+        int totalItems = cart.getLines().stream()
+                .mapToInt(CartState.Line::getQuantity)
                 .sum();
 
-        cart.setSubtotal(subtotal);
-        cart.setTotalItems(totalItems);
+        cart.setTotals(subtotal, totalItems);
     }
 
-    private CartResponse mapToCartResponse(Cart cart) {
-        List<CartItemResponse> items = cart.getItems().stream()
+    private CartResponse mapToCartResponse(CartState cart) {
+        List<CartItemResponse> items = cart.getLines().stream()
                 .map(item -> new CartItemResponse(
-                        item.getId(),
-                        item.getProduct().getProductId(),
-                        item.getProduct().getName(),
-                        item.getProduct().getImageUrl(),
+                        item.getItemId(),
+                        item.getProductId(),
+                        item.getProductName(),
+                        item.getProductImage(),
                         item.getQuantity(),
                         item.getUnitPrice(),
                         item.getSubtotal()
@@ -151,7 +233,7 @@ public class CartService {
                 .collect(Collectors.toList());
 
         return new CartResponse(
-                cart.getId(),
+                cart.getCartId(),
                 items,
                 cart.getSubtotal(),
                 cart.getTotalItems()
@@ -0,0 +1,194 @@
+package com.ecommerce.vic.service;
+
+import com.ecommerce.vic.model.Cart;
+import com.ecommerce.vic.model.CartItem;
+import com.ecommerce.vic.model.Product;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+// In-memory cart owned by CartStore and only touched while holding its lock. Every change stamps the
+// affected lines with a new version, so a flush writes just the lines changed since the last one.
+@Getter
+final class CartState {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Long userId;
+    private final Long cartId;
+    private final List<Line> lines;
+    private final Set<Long> removedItemIds = new HashSet<>();
+    private BigDecimal subtotal = BigDecimal.ZERO;
+    private int totalItems;
+    private long version;
+    private long flushedVersion;
+
+    private CartState(Long userId, Long cartId, List<Line> lines) {
+        this.userId = userId;
+        this.cartId = cartId;
+        this.lines = lines;
+    }
+
+    static CartState empty(Long userId, Long cartId) {
+        return new CartState(userId, cartId, new ArrayList<>());
+    }
+
+    static CartState of(Long userId, Cart cart) {
+        List<Line> lines = new ArrayList<>(cart.getItems().size());
+        for (CartItem item : cart.getItems()) {
+            Product product = item.getProduct();
+            // Lines without a recorded version are treated as stale and repriced on first read
+            long priceVersion = item.getPriceVersion() != null ? item.getPriceVersion() : -1L;
+            lines.add(new Line(item.getId(), product.getProductId(), product.getName(), product.getImageUrl(),
+                    item.getQuantity(), item.getUnitPrice(), item.getSubtotal(), priceVersion));
+        }
+        CartState state = new CartState(userId, cart.getId(), lines);
+        state.subtotal = cart.getSubtotal();
+        state.totalItems = cart.getTotalItems();
+        return state;
+    }
+
+    List<Line> getLines() {
+        return Collections.unmodifiableList(lines);
+    }
+
+    Line findLine(Long itemId) {
+        for (Line line : lines) {
+            if (line.itemId.equals(itemId)) {
+                return line;
+            }
+        }
+        return null;
+    }
+
+    Line findByProduct(Long productId) {
+        for (Line line : lines) {
+            if (line.productId.equals(productId)) {
+                return line;
+            }
+        }
+        return null;
+    }
+
+    Line addLine(Long itemId, Product product, int quantity) {
+        Line line = new Line(itemId, product.getProductId(), product.getName(), product.getImageUrl(),
+                quantity, product.getPrice(), product.getPrice().multiply(BigDecimal.valueOf(quantity)),
+                product.getPriceVersion());
+        line.modifiedVersion = ++version;
+        lines.add(line);
+        return line;
+    }
+
+    void updateQuantity(Line line, int quantity) {
+        line.quantity = quantity;
+        line.subtotal = line.unitPrice.multiply(BigDecimal.valueOf(quantity));
+        line.modifiedVersion = ++version;
+    }
+
+    void reprice(Line line, BigDecimal unitPrice, long priceVersion) {
+        line.unitPrice = unitPrice;
+        line.subtotal = unitPrice.multiply(BigDecimal.valueOf(line.quantity));
+        line.priceVersion = priceVersion;
+        line.modifiedVersion = ++version;
+    }
+
+    boolean removeLine(Long itemId) {
+        Line line = findLine(itemId);
+        if (line == null) {
+            return false;
+        }
+        lines.remove(line);
+        removedItemIds.add(itemId);
+        version++;
+        return true;
+    }
+
+    void clear() {
+        if (lines.isEmpty()) {
+            return;
+        }
+        lines.forEach(line -> removedItemIds.add(line.itemId));
+        lines.clear();
+        version++;
+    }
+
+    // For when the stored rows are gone: the next flush writes every line, not just those changed since the last
+    void markAllModified() {
+        long stamp = ++version;
+        lines.forEach(line -> line.modifiedVersion = stamp);
+    }
+
+    void setTotals(BigDecimal subtotal, int totalItems) {
+        this.subtotal = subtotal;
+        this.totalItems = totalItems;
+    }
+
+    boolean isDirty() {
+        return version > flushedVersion;
+    }
+
+    Snapshot snapshot() {
+        List<Line> changed = new ArrayList<>();
+        for (Line line : lines) {
+            if (line.modifiedVersion > flushedVersion) {
+                changed.add(line.copy());
+            }
+        }
+        return new Snapshot(this, version, cartId, userId, subtotal, totalItems, changed, List.copyOf(removedItemIds));
+    }
+
+    // Returns true when nothing changed while the snapshot was being written
+    boolean markFlushed(Snapshot snapshot) {
+        flushedVersion = Math.max(flushedVersion, snapshot.version());
+        snapshot.removedItemIds().forEach(removedItemIds::remove);
+        return !isDirty();
+    }
+
+    @Getter
+    static final class Line {
+        private final Long itemId;
+        private final Long productId;
+        private final String productName;
+        private final String productImage;
+        private int quantity;
+        private BigDecimal unitPrice;
+        private BigDecimal subtotal;
+        private long priceVersion;
+        private long modifiedVersion;
+
+        private Line(Long itemId, Long productId, String productName, String productImage,
+                     int quantity, BigDecimal unitPrice, BigDecimal subtotal, long priceVersion) {
+            this.itemId = itemId;
+            this.productId = productId;
+            this.productName = productName;
+            this.productImage = productImage;
+            this.quantity = quantity;
+            this.unitPrice = unitPrice;
+            this.subtotal = subtotal;
+            this.priceVersion = priceVersion;
+        }
+
+        private Line copy() {
+            Line copy = new Line(itemId, productId, productName, productImage, quantity, unitPrice, subtotal,
+                    priceVersion);
+            copy.modifiedVersion = modifiedVersion;
+            return copy;
+        }
+    }
+
+    record Snapshot(
+            CartState state,
+            long version,
+            Long cartId,
+            Long userId,
+            BigDecimal subtotal,
+            int totalItems,
+            List<Line> changedLines,
+            List<Long> removedItemIds
+    ) {
+    }
+}
@@ -0,0 +1,349 @@
+package com.ecommerce.vic.service;
+
+import com.ecommerce.vic.event.UserAccountChangedEvent;
+import com.ecommerce.vic.repository.CartRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+// Bounded in-memory cart store keyed by user id. Carts are mutated in place under a per-cart lock and written
+// behind: dirty carts are coalesced and flushed in batches, so many edits to a cart between flushes cost one
+// write. Dirty carts stay reachable from the dirty map even if evicted, and are flushed on shutdown.
+// The store assumes a user's cart is served by one instance; a restart reloads carts from the database.
+@Service
+@Slf4j
+public class CartStore {
+    private static final String UPSERT_CART_SQL = """
+            INSERT INTO carts (id, user_id, subtotal, total_items, last_modified_at) VALUES (?, ?, ?, ?, now())
+            ON CONFLICT (id) DO UPDATE SET subtotal = EXCLUDED.subtotal, total_items = EXCLUDED.total_items,
+                last_modified_at = EXCLUDED.last_modified_at, reminded_at = NULL
+            """;
+    private static final String UPSERT_ITEM_SQL = """
+            INSERT INTO cart_items (id, cart_id, product_id, quantity, unit_price, subtotal, price_version)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (id) DO UPDATE SET quantity = EXCLUDED.quantity, unit_price = EXCLUDED.unit_price,
+                subtotal = EXCLUDED.subtotal, price_version = EXCLUDED.price_version
+            """;
+    private static final String DELETE_ITEM_SQL = "DELETE FROM cart_items WHERE id = ?";
+
+    private final CartRepository cartRepository;
+    private final JdbcTemplate jdbcTemplate;
+    // Write-behind has its own thread so long jobs on the shared scheduler cannot delay flushes
+    private final ThreadPoolTaskScheduler flushScheduler;
+    private final Duration flushInterval;
+    private final TransactionTemplate readTemplate;
+    private final TransactionTemplate writeTemplate;
+    private final int flushBatchSize;
+    private final Cache<Long, CartState> carts;
+    private final Map<Long, CartState> dirty = new ConcurrentHashMap<>();
+    private final IdBlock cartIds;
+    private final IdBlock itemIds;
+
+    public CartStore(
+            CartRepository cartRepository,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${carts.store.max-size:100000}") long maxSize,
+            @Value("${carts.store.idle-expiry:30m}") Duration idleExpiry,
+            @Value("${carts.store.flush-interval-ms:2000}") long flushIntervalMs,
+            @Value("${carts.store.flush-batch-size:500}") int flushBatchSize) {
+        this.cartRepository = cartRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.flushScheduler = new ThreadPoolTaskScheduler();
+        this.flushScheduler.setPoolSize(1);
+        this.flushScheduler.setThreadNamePrefix("cart-flush-");
+        this.flushScheduler.setWaitForTasksToCompleteOnShutdown(true);
+        this.flushScheduler.setAwaitTerminationSeconds(30);
+        this.flushInterval = Duration.ofMillis(flushIntervalMs);
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setReadOnly(true);
+        this.writeTemplate = new TransactionTemplate(transactionManager);
+        this.writeTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.flushBatchSize = flushBatchSize;
+        this.carts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(idleExpiry)
+                .recordStats()
+                .build();
+        this.cartIds = new IdBlock("carts", 16);
+        this.itemIds = new IdBlock("cart_items", 64);
+        CaffeineCacheMetrics.monitor(meterRegistry, carts, "carts.store");
+        Gauge.builder("carts.store.dirty", dirty, Map::size).register(meterRegistry);
+    }
+
+    <T> T read(Long userId, Function<CartState, T> reader) {
+        return withLock(userId, reader, false);
+    }
+
+    <T> T update(Long userId, Function<CartState, T> mutation) {
+        return withLock(userId, mutation, true);
+    }
+
+    Long nextItemId() {
+        return itemIds.next();
+    }
+
+    @PostConstruct
+    public void start() {
+        flushScheduler.initialize();
+        flushScheduler.scheduleWithFixedDelay(this::flush, flushInterval);
+    }
+
+    // Used at checkout so the persisted cart catches up without the request waiting on it
+    public void flushSoon(Long userId) {
+        try {
+            flushScheduler.execute(() -> flush(userId));
+        } catch (TaskRejectedException e) {
+            // Shutting down; the final flush writes it
+            log.debug("Cart flush for user {} left to the shutdown flush", userId);
+        }
+    }
+
+    public void flush(Long userId) {
+        CartState state = dirty.get(userId);
+        if (state != null) {
+            flushStates(List.of(state));
+        }
+    }
+
+    public void flush() {
+        if (!dirty.isEmpty()) {
+            flushStates(new ArrayList<>(dirty.values()));
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        // Let an in-flight flush finish first so the final one sees its results
+        flushScheduler.shutdown();
+        flush();
+    }
+
+    // Carts held in memory are in use whatever their stored modification time says
+    boolean isResident(Long userId) {
+        return dirty.containsKey(userId) || carts.asMap().containsKey(userId);
+    }
+
+    // For a cart whose rows were deleted underneath the store. A clean copy is dropped; one with pending edits
+    // was loaded before the delete and is kept, but rewritten in full so the flush recreates every line
+    void evictDeleted(Long userId) {
+        CartState state = carts.getIfPresent(userId);
+        if (state == null) {
+            state = dirty.get(userId);
+        }
+        if (state == null) {
+            return;
+        }
+        state.getLock().lock();
+        try {
+            if (state.isDirty()) {
+                state.markAllModified();
+                dirty.put(userId, state);
+            } else {
+                carts.asMap().remove(userId, state);
+            }
+        } finally {
+            state.getLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserAccountChanged(UserAccountChangedEvent event) {
+        if (event.change() == UserAccountChangedEvent.Change.DELETED) {
+            dirty.remove(event.userId());
+            carts.invalidate(event.userId());
+        }
+    }
+
+    private <T> T withLock(Long userId, Function<CartState, T> action, boolean mutating) {
+        while (true) {
+            CartState state = carts.getIfPresent(userId);
+            if (state == null) {
+                // Loaded outside the cache's compute, which holds a monitor and would pin a virtual thread's
+                // carrier for the whole query; a racing load simply loses to whichever state got in first
+                CartState loaded = load(userId);
+                CartState existing = carts.asMap().putIfAbsent(userId, loaded);
+                state = existing != null ? existing : loaded;
+            }
+            ReentrantLock lock = state.getLock();
+            lock.lock();
+            try {
+                // An entry evicted between lookup and lock would be replaced by a fresh load; act on that one instead
+                if (carts.asMap().get(userId) != state) {
+                    continue;
+                }
+                T result = action.apply(state);
+                if (mutating && state.isDirty()) {
+                    dirty.put(userId, state);
+                }
+                return result;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private CartState load(Long userId) {
+        CartState pending = dirty.get(userId);
+        if (pending != null) {
+            return pending;
+        }
+        CartState loaded = readTemplate.execute(status -> cartRepository.findWithItemsByUserId(userId)
+                .map(cart -> CartState.of(userId, cart))
+                .orElse(null));
+        return loaded != null ? loaded : CartState.empty(userId, cartIds.next());
+    }
+
+    private void flushStates(List<CartState> states) {
+        int written = 0;
+        for (int from = 0; from < states.size(); from += flushBatchSize) {
+            List<CartState.Snapshot> snapshots = new ArrayList<>();
+            for (CartState state : states.subList(from, Math.min(states.size(), from + flushBatchSize))) {
+                CartState.Snapshot snapshot = snapshot(state);
+                if (snapshot != null) {
+                    snapshots.add(snapshot);
+                }
+            }
+            try {
+                write(snapshots);
+                snapshots.forEach(this::markFlushed);
+                written += snapshots.size();
+            } catch (RuntimeException e) {
+                log.warn("Batched flush of {} carts failed, retrying one by one", snapshots.size(), e);
+                written += flushIndividually(snapshots);
+            }
+        }
+        log.debug("Flushed {} carts", written);
+    }
+
+    private int flushIndividually(List<CartState.Snapshot> snapshots) {
+        int written = 0;
+        for (CartState.Snapshot snapshot : snapshots) {
+            try {
+                write(List.of(snapshot));
+                markFlushed(snapshot);
+                written++;
+            } catch (DataIntegrityViolationException e) {
+                // The user or a product is gone; retrying cannot succeed, so fall back to the stored cart
+                log.error("Discarding unflushable changes to cart {} of user {}", snapshot.cartId(), snapshot.userId(), e);
+                discard(snapshot.state());
+            } catch (RuntimeException e) {
+                log.error("Failed to flush cart {}; will retry", snapshot.cartId(), e);
+            }
+        }
+        return written;
+    }
+
+    private CartState.Snapshot snapshot(CartState state) {
+        state.getLock().lock();
+        try {
+            return state.isDirty() ? state.snapshot() : null;
+        } finally {
+            state.getLock().unlock();
+        }
+    }
+
+    private void markFlushed(CartState.Snapshot snapshot) {
+        CartState state = snapshot.state();
+        state.getLock().lock();
+        try {
+            if (state.markFlushed(snapshot)) {
+                dirty.remove(state.getUserId(), state);
+            }
+        } finally {
+            state.getLock().unlock();
+        }
+    }
+
+    private void discard(CartState state) {
+        state.getLock().lock();
+        try {
+            dirty.remove(state.getUserId(), state);
+            carts.asMap().remove(state.getUserId(), state);
+        } finally {
+            state.getLock().unlock();
+        }
+    }
+
+    private void write(List<CartState.Snapshot> snapshots) {
+        List<Object[]> cartRows = new ArrayList<>(snapshots.size());
+        List<Object[]> itemRows = new ArrayList<>();
+        List<Object[]> removedRows = new ArrayList<>();
+        for (CartState.Snapshot snapshot : snapshots) {
+            cartRows.add(new Object[]{snapshot.cartId(), snapshot.userId(), snapshot.subtotal(), snapshot.totalItems()});
+            for (CartState.Line line : snapshot.changedLines()) {
+                itemRows.add(new Object[]{line.getItemId(), snapshot.cartId(), line.getProductId(),
+                        line.getQuantity(), line.getUnitPrice(), line.getSubtotal(), line.getPriceVersion()});
+            }
+            snapshot.removedItemIds().forEach(itemId -> removedRows.add(new Object[]{itemId}));
+        }
+        writeTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(UPSERT_CART_SQL, cartRows);
+            if (!removedRows.isEmpty()) {
+                jdbcTemplate.batchUpdate(DELETE_ITEM_SQL, removedRows);
+            }
+            if (!itemRows.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPSERT_ITEM_SQL, itemRows);
+            }
+        });
+    }
+
+    // Ids come from the tables' own identity sequences in blocks, so new carts and lines have their final id
+    // before they are ever written
+    private final class IdBlock {
+        private final String table;
+        private final int blockSize;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Deque<Long> available = new ArrayDeque<>();
+        private String sequence;
+
+        private IdBlock(String table, int blockSize) {
+            this.table = table;
+            this.blockSize = blockSize;
+        }
+
+        Long next() {
+            lock.lock();
+            try {
+                if (available.isEmpty()) {
+                    if (sequence == null) {
+                        sequence = jdbcTemplate.queryForObject(
+                                "SELECT pg_get_serial_sequence(?, 'id')", String.class, table);
+                    }
+                    available.addAll(jdbcTemplate.queryForList(
+                            "SELECT nextval(CAST(? AS regclass)) FROM generate_series(1, ?)",
+                            Long.class, sequence, blockSize));
+                }
+                return available.poll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
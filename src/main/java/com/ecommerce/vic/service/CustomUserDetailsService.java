@@ -1,32 +1,80 @@
 package com.ecommerce.vic.service;
 
-import com.ecommerce.vic.model.User;
+import com.ecommerce.vic.event.UserAccountChangedEvent;
 import com.ecommerce.vic.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import com.ecommerce.vic.security.AccountUserDetails;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
-
-import java.util.Collections;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
-@RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+@Slf4j
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final Cache<String, AccountUserDetails> cache;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public CustomUserDetailsService(
+            UserRepository userRepository,
+            MeterRegistry meterRegistry,
+            @Value("${security.user-cache.max-size:10000}") long maxSize,
+            @Value("${security.user-cache.ttl:10m}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users.details");
+    }
 
     @Override
-    public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
+    public AccountUserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+        AccountUserDetails cached = cache.getIfPresent(email);
+        if (cached != null) {
+            return cached;
+        }
+        // Queried outside the cache's compute, which holds a monitor and would pin a virtual thread's carrier.
+        // Misses are not cached, so an unknown email always falls through to the database
+        long generation = invalidations.get();
+        AccountUserDetails loaded = userRepository.findByEmail(email)
+                .map(AccountUserDetails::from)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
+        cache.put(email, loaded);
+        // An account change that landed while querying may have read the old row; drop it rather than serve it
+        if (invalidations.get() != generation) {
+            cache.invalidate(email);
+        }
+        return loaded;
+    }
+
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePasswordHash(user.getUsername(), newPassword);
+        invalidations.incrementAndGet();
+        cache.invalidate(user.getUsername());
+        log.info("Upgraded password hash for {}", user.getUsername());
+        return user instanceof AccountUserDetails account ? account.withPasswordHash(newPassword) : user;
+    }
 
-        return new org.springframework.security.core.userdetails.User(
-                user.getEmail(),
-                user.getPasswordHash(),
-                Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()))
-        );
+    // Runs after commit so a concurrent load cannot re-cache the pre-change row
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserAccountChanged(UserAccountChangedEvent event) {
+        invalidations.incrementAndGet();
+        cache.invalidate(event.email());
+        log.debug("Evicted cached account details for user {} ({})", event.userId(), event.change());
     }
 }
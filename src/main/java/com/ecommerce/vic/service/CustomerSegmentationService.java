@@ -0,0 +1,352 @@
+package com.ecommerce.vic.service;
+
+import com.ecommerce.vic.constants.CustomerSegment;
+import com.ecommerce.vic.constants.OrderStatus;
+import com.ecommerce.vic.dto.report.CustomerOrderSummary;
+import com.ecommerce.vic.dto.report.CustomerScoreResponse;
+import com.ecommerce.vic.exception.InvalidOperationException;
+import com.ecommerce.vic.model.CustomerScore;
+import com.ecommerce.vic.repository.CustomerScoreRepository;
+import com.ecommerce.vic.repository.OrderRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+@Service
+@Slf4j
+public class CustomerSegmentationService {
+    private static final String UPSERT_SQL = """
+            INSERT INTO customer_scores (user_id, recency_days, frequency, monetary,
+                recency_score, frequency_score, monetary_score, segment, computed_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (user_id) DO UPDATE SET
+                recency_days = EXCLUDED.recency_days,
+                frequency = EXCLUDED.frequency,
+                monetary = EXCLUDED.monetary,
+                recency_score = EXCLUDED.recency_score,
+                frequency_score = EXCLUDED.frequency_score,
+                monetary_score = EXCLUDED.monetary_score,
+                segment = EXCLUDED.segment,
+                computed_at = EXCLUDED.computed_at
+            """;
+
+    private final OrderRepository orderRepository;
+    private final CustomerScoreRepository customerScoreRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ThreadPoolTaskExecutor segmentationExecutor;
+    private final ForkJoinPool scoringPool;
+    private final int writeBatchSize;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public CustomerSegmentationService(
+            OrderRepository orderRepository,
+            CustomerScoreRepository customerScoreRepository,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ThreadPoolTaskExecutor segmentationExecutor,
+            @Value("${customers.segmentation.parallelism:0}") int parallelism,
+            @Value("${customers.segmentation.write-batch-size:1000}") int writeBatchSize) {
+        this.orderRepository = orderRepository;
+        this.customerScoreRepository = customerScoreRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.segmentationExecutor = segmentationExecutor;
+        this.scoringPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.writeBatchSize = writeBatchSize;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scoringPool.shutdownNow();
+    }
+
+    @Scheduled(cron = "${customers.segmentation.cron:0 30 3 * * *}")
+    public void scheduledRecompute() {
+        // Handed off so the shared scheduler thread is not held for the length of a run
+        try {
+            segmentationExecutor.execute(this::recompute);
+        } catch (TaskRejectedException e) {
+            log.warn("Scheduled customer segmentation skipped; a run is already in progress");
+        }
+    }
+
+    public void triggerRecompute() {
+        if (running.get()) {
+            throw new InvalidOperationException("Customer segmentation is already running");
+        }
+        try {
+            segmentationExecutor.execute(this::recompute);
+        } catch (TaskRejectedException e) {
+            throw new InvalidOperationException("Customer segmentation is already running");
+        }
+    }
+
+    public void recompute() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Customer segmentation skipped; a run is already in progress");
+            return;
+        }
+        try {
+            long started = System.currentTimeMillis();
+            LocalDateTime computedAt = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+            CustomerMetrics metrics = readOnlyTransaction.execute(status -> loadMetrics(computedAt));
+            metrics.allocateScores();
+            scoringPool.invoke(new ScoringTask(metrics, Thresholds.of(metrics), 0, metrics.size));
+            writeScores(metrics, computedAt);
+            int removed = jdbcTemplate.update(
+                    "DELETE FROM customer_scores WHERE computed_at < ?", Timestamp.valueOf(computedAt));
+
+            log.info("Customer segmentation scored {} customers ({} stale removed) in {} ms",
+                    metrics.size, removed, System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            log.error("Customer segmentation failed", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public Map<CustomerSegment, Long> getSegmentCounts() {
+        Map<CustomerSegment, Long> counts = new EnumMap<>(CustomerSegment.class);
+        for (CustomerSegment segment : CustomerSegment.values()) {
+            counts.put(segment, 0L);
+        }
+        for (Object[] row : customerScoreRepository.countBySegment()) {
+            counts.put((CustomerSegment) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+
+    public Page<CustomerScoreResponse> getCustomersInSegment(CustomerSegment segment, int page, int size) {
+        return customerScoreRepository.findBySegment(segment, PageRequest.of(page, size))
+                .map(this::mapToResponse);
+    }
+
+    private CustomerMetrics loadMetrics(LocalDateTime now) {
+        CustomerMetrics metrics = new CustomerMetrics();
+        try (Stream<CustomerOrderSummary> summaries =
+                     orderRepository.streamCustomerOrderSummaries(OrderStatus.COMPLETED)) {
+            summaries.forEach(summary -> metrics.add(
+                    summary.userId(),
+                    (int) Math.max(0, ChronoUnit.DAYS.between(summary.lastOrderAt(), now)),
+                    (int) summary.orderCount(),
+                    summary.totalSpent().setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact()));
+        }
+        return metrics;
+    }
+
+    private void writeScores(CustomerMetrics metrics, LocalDateTime computedAt) {
+        Timestamp computedAtValue = Timestamp.valueOf(computedAt);
+        for (int from = 0; from < metrics.size; from += writeBatchSize) {
+            int to = Math.min(metrics.size, from + writeBatchSize);
+            int offset = from;
+            jdbcTemplate.batchUpdate(UPSERT_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    int index = offset + i;
+                    ps.setLong(1, metrics.userIds[index]);
+                    ps.setInt(2, metrics.recencyDays[index]);
+                    ps.setInt(3, metrics.frequencies[index]);
+                    ps.setBigDecimal(4, BigDecimal.valueOf(metrics.monetaryMinor[index], 2));
+                    ps.setInt(5, metrics.recencyScores[index]);
+                    ps.setInt(6, metrics.frequencyScores[index]);
+                    ps.setInt(7, metrics.monetaryScores[index]);
+                    ps.setString(8, CustomerSegment.values()[metrics.segments[index]].name());
+                    ps.setTimestamp(9, computedAtValue);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return to - offset;
+                }
+            });
+        }
+    }
+
+    private CustomerScoreResponse mapToResponse(CustomerScore score) {
+        return new CustomerScoreResponse(
+                score.getUserId(),
+                score.getRecencyDays(),
+                score.getFrequency(),
+                score.getMonetary(),
+                score.getRecencyScore(),
+                score.getFrequencyScore(),
+                score.getMonetaryScore(),
+                score.getSegment(),
+                score.getComputedAt()
+        );
+    }
+
+    static CustomerSegment segmentOf(int recency, int frequency) {
+        if (recency >= 4 && frequency >= 4) {
+            return CustomerSegment.CHAMPIONS;
+        }
+        if (recency >= 3 && frequency >= 3) {
+            return CustomerSegment.LOYAL;
+        }
+        if (recency >= 4 && frequency == 1) {
+            return CustomerSegment.NEW_CUSTOMER;
+        }
+        if (recency >= 3) {
+            return CustomerSegment.POTENTIAL_LOYALIST;
+        }
+        if (frequency >= 3) {
+            return CustomerSegment.AT_RISK;
+        }
+        if (recency == 2) {
+            return CustomerSegment.HIBERNATING;
+        }
+        return CustomerSegment.LOST;
+    }
+
+    // Per-customer inputs and outputs in parallel primitive arrays, filled in user id order
+    private static final class CustomerMetrics {
+        int size;
+        long[] userIds = new long[1024];
+        int[] recencyDays = new int[1024];
+        int[] frequencies = new int[1024];
+        long[] monetaryMinor = new long[1024];
+        byte[] recencyScores;
+        byte[] frequencyScores;
+        byte[] monetaryScores;
+        byte[] segments;
+
+        void add(long userId, int recency, int frequency, long monetary) {
+            if (size == userIds.length) {
+                int capacity = size * 2;
+                userIds = Arrays.copyOf(userIds, capacity);
+                recencyDays = Arrays.copyOf(recencyDays, capacity);
+                frequencies = Arrays.copyOf(frequencies, capacity);
+                monetaryMinor = Arrays.copyOf(monetaryMinor, capacity);
+            }
+            userIds[size] = userId;
+            recencyDays[size] = recency;
+            frequencies[size] = frequency;
+            monetaryMinor[size] = monetary;
+            size++;
+        }
+
+        void allocateScores() {
+            recencyScores = new byte[size];
+            frequencyScores = new byte[size];
+            monetaryScores = new byte[size];
+            segments = new byte[size];
+        }
+    }
+
+    // Quintile cut points; a value's score is 1 + the number of cut points it exceeds
+    private record Thresholds(int[] recency, int[] frequency, long[] monetary) {
+        static Thresholds of(CustomerMetrics metrics) {
+            int[] recency = Arrays.copyOf(metrics.recencyDays, metrics.size);
+            int[] frequency = Arrays.copyOf(metrics.frequencies, metrics.size);
+            long[] monetary = Arrays.copyOf(metrics.monetaryMinor, metrics.size);
+            Arrays.parallelSort(recency);
+            Arrays.parallelSort(frequency);
+            Arrays.parallelSort(monetary);
+
+            int[] recencyCuts = new int[4];
+            int[] frequencyCuts = new int[4];
+            long[] monetaryCuts = new long[4];
+            for (int q = 1; q <= 4; q++) {
+                int index = Math.min(metrics.size - 1, metrics.size * q / 5);
+                if (index >= 0) {
+                    recencyCuts[q - 1] = recency[index];
+                    frequencyCuts[q - 1] = frequency[index];
+                    monetaryCuts[q - 1] = monetary[index];
+                }
+            }
+            return new Thresholds(recencyCuts, frequencyCuts, monetaryCuts);
+        }
+
+        int recencyScore(int days) {
+            int score = 5;
+            for (int cut : recency) {
+                if (days > cut) {
+                    score--;
+                }
+            }
+            return score;
+        }
+
+        int frequencyScore(int count) {
+            int score = 1;
+            for (int cut : frequency) {
+                if (count > cut) {
+                    score++;
+                }
+            }
+            return score;
+        }
+
+        int monetaryScore(long amount) {
+            int score = 1;
+            for (long cut : monetary) {
+                if (amount > cut) {
+                    score++;
+                }
+            }
+            return score;
+        }
+    }
+
+    private static final class ScoringTask extends RecursiveAction {
+        private static final int CHUNK_SIZE = 16_384;
+
+        private final CustomerMetrics metrics;
+        private final Thresholds thresholds;
+        private final int from;
+        private final int to;
+
+        ScoringTask(CustomerMetrics metrics, Thresholds thresholds, int from, int to) {
+            this.metrics = metrics;
+            this.thresholds = thresholds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > CHUNK_SIZE) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ScoringTask(metrics, thresholds, from, middle),
+                        new ScoringTask(metrics, thresholds, middle, to));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                int recency = thresholds.recencyScore(metrics.recencyDays[i]);
+                int frequency = thresholds.frequencyScore(metrics.frequencies[i]);
+                metrics.recencyScores[i] = (byte) recency;
+                metrics.frequencyScores[i] = (byte) frequency;
+                metrics.monetaryScores[i] = (byte) thresholds.monetaryScore(metrics.monetaryMinor[i]);
+                metrics.segments[i] = (byte) segmentOf(recency, frequency).ordinal();
+            }
+        }
+    }
+}
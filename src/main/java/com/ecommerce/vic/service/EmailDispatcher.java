@@ -0,0 +1,254 @@
+package com.ecommerce.vic.service;
+
+import com.ecommerce.vic.config.MailOutboxConfig;
+import com.ecommerce.vic.event.OutboundEmailQueuedEvent;
+import com.ecommerce.vic.model.OutboundEmail;
+import com.ecommerce.vic.repository.OutboundEmailRepository;
+import com.ecommerce.vic.security.MailBodyCipher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Drains the outbox on a small worker pool. Each batch is claimed with SKIP LOCKED in a short transaction,
+// then sent outside it in a single JavaMailSender call, which delivers the whole batch over one SMTP connection.
+@Service
+@Slf4j
+public class EmailDispatcher {
+    private final OutboundEmailRepository outboundEmailRepository;
+    private final JavaMailSender mailSender;
+    private final MailBodyCipher cipher;
+    private final MailOutboxConfig config;
+    private final ThreadPoolTaskExecutor mailExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final String fromEmail;
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+    private final AtomicLong pending = new AtomicLong();
+    private final Counter sentCounter;
+    private final Counter retriedCounter;
+    private final Counter failedCounter;
+
+    public EmailDispatcher(
+            OutboundEmailRepository outboundEmailRepository,
+            JavaMailSender mailSender,
+            MailBodyCipher cipher,
+            MailOutboxConfig config,
+            ThreadPoolTaskExecutor mailExecutor,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${mail.from:noreply@yourdomain.com}") String fromEmail) {
+        this.outboundEmailRepository = outboundEmailRepository;
+        this.mailSender = mailSender;
+        this.cipher = cipher;
+        this.config = config;
+        this.mailExecutor = mailExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.fromEmail = fromEmail;
+        Gauge.builder("mail.outbox.pending", pending, AtomicLong::get)
+                .description("Outbound emails waiting to be sent")
+                .register(meterRegistry);
+        this.sentCounter = meterRegistry.counter("mail.outbox.delivered", "outcome", "sent");
+        this.retriedCounter = meterRegistry.counter("mail.outbox.delivered", "outcome", "retry");
+        this.failedCounter = meterRegistry.counter("mail.outbox.delivered", "outcome", "failed");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmailQueued(OutboundEmailQueuedEvent event) {
+        pending.incrementAndGet();
+        wake();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        poll();
+    }
+
+    // Picks up retries that have come due and anything queued while every worker was busy
+    @Scheduled(fixedDelayString = "${mail.outbox.poll-interval-ms:10000}", initialDelayString = "${mail.outbox.poll-interval-ms:10000}")
+    public void poll() {
+        try {
+            pending.set(outboundEmailRepository.countByStatus(OutboundEmail.Status.PENDING));
+        } catch (RuntimeException e) {
+            log.warn("Could not refresh outbound email queue depth", e);
+        }
+        wake();
+    }
+
+    @Scheduled(cron = "${mail.outbox.cleanup-cron:0 15 4 * * *}")
+    public void deleteSettled() {
+        LocalDateTime now = LocalDateTime.now();
+        Integer sent = transactionTemplate.execute(status ->
+                outboundEmailRepository.deleteSentBefore(now.minus(config.getSentRetention())));
+        Integer failed = transactionTemplate.execute(status ->
+                outboundEmailRepository.deleteFailedBefore(now.minus(config.getFailedRetention())));
+        log.debug("Deleted {} delivered and {} failed outbound emails", sent, failed);
+    }
+
+    private void wake() {
+        int active;
+        while ((active = activeWorkers.get()) < config.getWorkers()) {
+            if (!activeWorkers.compareAndSet(active, active + 1)) {
+                continue;
+            }
+            try {
+                mailExecutor.execute(this::drain);
+            } catch (TaskRejectedException e) {
+                activeWorkers.decrementAndGet();
+                return;
+            }
+        }
+    }
+
+    private void drain() {
+        try {
+            List<OutboundEmail> batch;
+            while (!(batch = claim()).isEmpty()) {
+                deliver(batch);
+            }
+        } catch (RuntimeException e) {
+            log.error("Outbound email worker stopped unexpectedly", e);
+        } finally {
+            activeWorkers.decrementAndGet();
+        }
+    }
+
+    private List<OutboundEmail> claim() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime leasedUntil = now.plus(config.getLease());
+        List<OutboundEmail> batch = transactionTemplate.execute(status -> {
+            List<OutboundEmail> due = outboundEmailRepository.lockDue(now, config.getBatchSize());
+            for (OutboundEmail email : due) {
+                email.setAttempts(email.getAttempts() + 1);
+                email.setNextAttemptAt(leasedUntil);
+            }
+            return due;
+        });
+        return batch != null ? batch : List.of();
+    }
+
+    private void deliver(List<OutboundEmail> batch) {
+        Map<MimeMessage, OutboundEmail> messages = new IdentityHashMap<>(batch.size());
+        Map<OutboundEmail, String> failures = new IdentityHashMap<>();
+        for (OutboundEmail email : batch) {
+            try {
+                messages.put(toMimeMessage(email), email);
+            } catch (MessagingException | IllegalStateException e) {
+                failures.put(email, describe(e));
+            }
+        }
+
+        if (!messages.isEmpty()) {
+            try {
+                mailSender.send(messages.keySet().toArray(MimeMessage[]::new));
+            } catch (MailSendException e) {
+                if (e.getFailedMessages().isEmpty()) {
+                    messages.values().forEach(email -> failures.put(email, describe(e)));
+                } else {
+                    e.getFailedMessages().forEach((message, cause) -> {
+                        OutboundEmail email = messages.get(message);
+                        if (email != null) {
+                            failures.put(email, describe(cause));
+                        }
+                    });
+                }
+            } catch (MailException e) {
+                messages.values().forEach(email -> failures.put(email, describe(e)));
+            }
+        }
+
+        complete(batch, failures);
+    }
+
+    private void complete(List<OutboundEmail> batch, Map<OutboundEmail, String> failures) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> sentIds = new ArrayList<>(batch.size());
+        for (OutboundEmail email : batch) {
+            if (!failures.containsKey(email)) {
+                sentIds.add(email.getId());
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!sentIds.isEmpty()) {
+                outboundEmailRepository.markSent(sentIds, now);
+            }
+            failures.forEach((email, error) -> {
+                if (email.getAttempts() >= config.getMaxAttempts()) {
+                    outboundEmailRepository.markFailed(email.getId(), error);
+                } else {
+                    outboundEmailRepository.reschedule(email.getId(), now.plus(backoff(email.getAttempts())), error);
+                }
+            });
+        });
+
+        int failed = 0;
+        for (OutboundEmail email : failures.keySet()) {
+            if (email.getAttempts() >= config.getMaxAttempts()) {
+                failed++;
+                log.error("Giving up on email {} to {} after {} attempts: {}",
+                        email.getId(), email.getRecipient(), email.getAttempts(), failures.get(email));
+            } else {
+                log.warn("Email {} to {} failed on attempt {}, will retry: {}",
+                        email.getId(), email.getRecipient(), email.getAttempts(), failures.get(email));
+            }
+        }
+        sentCounter.increment(sentIds.size());
+        retriedCounter.increment(failures.size() - failed);
+        failedCounter.increment(failed);
+        long settled = sentIds.size() + failed;
+        pending.updateAndGet(current -> Math.max(0, current - settled));
+    }
+
+    // Exponential with up to 20% jitter, so a mail server outage does not end in a synchronised retry storm
+    private Duration backoff(int attempts) {
+        long initialMillis = config.getInitialBackoff().toMillis();
+        long maxMillis = config.getMaxBackoff().toMillis();
+        long delay = initialMillis << Math.min(attempts - 1, 30);
+        if (delay <= 0 || delay > maxMillis) {
+            delay = maxMillis;
+        }
+        return Duration.ofMillis(delay + ThreadLocalRandom.current().nextLong(delay / 5 + 1));
+    }
+
+    private MimeMessage toMimeMessage(OutboundEmail email) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, StandardCharsets.UTF_8.name());
+        helper.setFrom(fromEmail);
+        helper.setTo(email.getRecipient());
+        helper.setSubject(email.getSubject());
+        helper.setText(cipher.decrypt(email.getBody()), email.isHtml());
+        return message;
+    }
+
+    private String describe(Exception e) {
+        String message = e.getClass().getSimpleName() + ": " + e.getMessage();
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+}
@@ -0,0 +1,76 @@
+package com.ecommerce.vic.service;
+
+import com.ecommerce.vic.repository.UserRepository;
+import com.ecommerce.vic.util.BloomFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Locale;
+import java.util.stream.Stream;
+
+// Answers "definitely not registered" for an email without a query. Positives may be false, so callers
+// still confirm them against the database, and the unique constraint on users.email stays the final word.
+@Service
+@Slf4j
+public class EmailRegistry {
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+
+    private volatile BloomFilter filter;
+    private volatile boolean ready;
+
+    public EmailRegistry(
+            UserRepository userRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${users.email-filter.expected-insertions:1000000}") long expectedInsertions,
+            @Value("${users.email-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedInsertions, falsePositiveRate);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        long started = System.currentTimeMillis();
+        long users = userRepository.count();
+        BloomFilter built = new BloomFilter(Math.max(expectedInsertions, users * 2), falsePositiveRate);
+        // Registrations during the scan go into the new filter as well
+        filter = built;
+
+        Long loaded = readOnlyTransaction.execute(status -> {
+            long count = 0;
+            try (Stream<String> emails = userRepository.streamAllEmails()) {
+                for (String email : (Iterable<String>) emails::iterator) {
+                    built.add(normalize(email));
+                    count++;
+                }
+            }
+            return count;
+        });
+        ready = true;
+        log.info("Email registry built from {} users in {} ms ({} bits, {} hashes)",
+                loaded, System.currentTimeMillis() - started, built.bitCount(), built.hashCount());
+    }
+
+    public boolean mightExist(String email) {
+        return !ready || filter.mightContain(normalize(email));
+    }
+
+    public void register(String email) {
+        filter.add(normalize(email));
+    }
+
+    private String normalize(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+}
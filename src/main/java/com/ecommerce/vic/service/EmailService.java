@@ -1,41 +1,123 @@
 package com.ecommerce.vic.service;
 
+import com.ecommerce.vic.constants.OrderStatus;
+import com.ecommerce.vic.event.OutboundEmailQueuedEvent;
+import com.ecommerce.vic.model.Order;
+import com.ecommerce.vic.model.OrderItem;
+import com.ecommerce.vic.model.OutboundEmail;
+import com.ecommerce.vic.notification.NotificationTemplates;
+import com.ecommerce.vic.notification.RenderedNotification;
+import com.ecommerce.vic.repository.OutboundEmailRepository;
+import com.ecommerce.vic.security.MailBodyCipher;
 import lombok.RequiredArgsConstructor;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Messages are rendered from the compiled notification templates and queued in the caller's transaction;
+// EmailDispatcher delivers them once it commits, so request latency never includes the mail server
 @Service
 @RequiredArgsConstructor
 public class EmailService {
-    private final JavaMailSender mailSender;
-    private final String fromEmail = "noreply@yourdomain.com";
+    private final OutboundEmailRepository outboundEmailRepository;
+    private final NotificationTemplates templates;
+    private final MailBodyCipher cipher;
+    private final ApplicationEventPublisher eventPublisher;
 
     public void sendVerificationEmail(String toEmail, String token) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom(fromEmail);
-        message.setTo(toEmail);
-        message.setSubject("Email Verification");
-        message.setText("Please verify your email by entering this code: " + token);
-        mailSender.send(message);
+        enqueue(toEmail, "email-verification", Map.of("code", token), LocaleContextHolder.getLocale());
     }
 
     public void sendAdminInvitation(String toEmail, String token, String temporaryPassword) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom(fromEmail);
-        message.setTo(toEmail);
-        message.setSubject("Admin Account Invitation");
-        message.setText("You have been invited as an admin. Your temporary password is: " + temporaryPassword +
-                "\nPlease use this verification code to complete setup: " + token);
-        mailSender.send(message);
+        enqueue(toEmail, "admin-invitation", Map.of("code", token, "temporaryPassword", temporaryPassword),
+                LocaleContextHolder.getLocale());
     }
 
     public void sendPasswordResetEmail(String toEmail, String token) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom(fromEmail);
-        message.setTo(toEmail);
-        message.setSubject("Password Reset Request");
-        message.setText("Your password reset code is: " + token);
-        mailSender.send(message);
+        enqueue(toEmail, "password-reset", Map.of("code", token), LocaleContextHolder.getLocale());
+    }
+
+    public void sendOrderConfirmation(String toEmail, Order order, Locale locale) {
+        enqueue(toEmail, "order-confirmation", orderModel(order, locale), locale);
+    }
+
+    public void sendShippingNotice(String toEmail, Order order, Locale locale) {
+        enqueue(toEmail, "shipping-notice", orderModel(order, locale), locale);
+    }
+
+    public void sendReceipt(String toEmail, Order order, Locale locale) {
+        enqueue(toEmail, "order-receipt", orderModel(order, locale), locale);
+    }
+
+    public void sendOrderStatusUpdate(String toEmail, Order order, Locale locale) {
+        enqueue(toEmail, "order-status-update", orderModel(order, locale), locale);
+    }
+
+    public void sendOrderStatusDigest(String toEmail, List<Order> orders, Locale locale) {
+        List<Map<String, Object>> models = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            models.add(orderModel(order, locale));
+        }
+        enqueue(toEmail, "order-status-digest", Map.of("orderCount", orders.size(), "orders", models), locale);
+    }
+
+    private void enqueue(String toEmail, String template, Map<String, ?> model, Locale locale) {
+        RenderedNotification message = templates.render(template, locale, model);
+        LocalDateTime now = LocalDateTime.now();
+        OutboundEmail email = outboundEmailRepository.save(OutboundEmail.builder()
+                .recipient(toEmail)
+                .subject(message.subject())
+                .body(cipher.encrypt(message.body()))
+                .html(message.html())
+                .status(OutboundEmail.Status.PENDING)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build());
+        eventPublisher.publishEvent(new OutboundEmailQueuedEvent(email.getId()));
+    }
+
+    private Map<String, Object> orderModel(Order order, Locale locale) {
+        List<Map<String, Object>> items = new ArrayList<>(order.getOrderItems().size());
+        for (OrderItem item : order.getOrderItems()) {
+            Map<String, Object> line = new HashMap<>(8);
+            line.put("name", item.getProduct().getName());
+            line.put("quantity", item.getQuantity());
+            line.put("unitPrice", money(item.getUnitPrice()));
+            line.put("subtotal", money(item.getSubtotal()));
+            items.add(line);
+        }
+        LocalDateTime placedAt = order.getCreatedAt() != null ? order.getCreatedAt() : LocalDateTime.now();
+        // Missing fields render as empty rather than failing the enclosing transaction
+        Map<String, Object> model = new HashMap<>();
+        model.put("orderNumber", order.getOrderNumber());
+        model.put("orderDate", DateTimeFormatter.ofLocalizedDate(FormatStyle.MEDIUM).withLocale(locale).format(placedAt));
+        model.put("shippingAddress", order.getShippingAddress());
+        model.put("totalAmount", money(order.getTotalAmount()));
+        model.put("status", statusLabel(order.getStatus()));
+        model.put("items", items);
+        return model;
+    }
+
+    private String statusLabel(OrderStatus status) {
+        if (status == null) {
+            return null;
+        }
+        String name = status.name().toLowerCase(Locale.ROOT);
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private BigDecimal money(BigDecimal amount) {
+        return amount != null ? amount.setScale(2, RoundingMode.HALF_UP) : null;
     }
 }
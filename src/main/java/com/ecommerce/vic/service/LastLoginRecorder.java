@@ -0,0 +1,84 @@
+package com.ecommerce.vic.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Buffers login timestamps and writes them in one narrow UPDATE per interval; repeated logins by the same
+// user between flushes collapse into a single row
+@Service
+@Slf4j
+public class LastLoginRecorder {
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final Map<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    public LastLoginRecorder(
+            JdbcTemplate jdbcTemplate,
+            @Value("${users.last-login.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    public void record(Long userId) {
+        pending.put(userId, LocalDateTime.now());
+    }
+
+    @Scheduled(fixedDelayString = "${users.last-login.flush-interval-ms:5000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<Long, LocalDateTime>> drained = new ArrayList<>(pending.size());
+        for (Map.Entry<Long, LocalDateTime> entry : pending.entrySet()) {
+            Long userId = entry.getKey();
+            LocalDateTime loginAt = entry.getValue();
+            // Keep the entry if a newer login replaced it while draining
+            if (pending.remove(userId, loginAt)) {
+                drained.add(Map.entry(userId, loginAt));
+            }
+        }
+
+        int updated = 0;
+        for (int from = 0; from < drained.size(); from += batchSize) {
+            List<Map.Entry<Long, LocalDateTime>> chunk = drained.subList(from, Math.min(drained.size(), from + batchSize));
+            try {
+                updated += writeChunk(chunk);
+            } catch (RuntimeException e) {
+                log.error("Failed to write {} last-login timestamps; re-queueing", chunk.size(), e);
+                chunk.forEach(entry -> pending.merge(entry.getKey(), entry.getValue(),
+                        (current, failed) -> current.isAfter(failed) ? current : failed));
+            }
+        }
+        log.debug("Flushed {} last-login timestamps", updated);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private int writeChunk(List<Map.Entry<Long, LocalDateTime>> chunk) {
+        StringBuilder sql = new StringBuilder(
+                "UPDATE users u SET last_login_at = GREATEST(u.last_login_at, v.ts) FROM (VALUES ");
+        Object[] args = new Object[chunk.size() * 2];
+        for (int i = 0; i < chunk.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append("(CAST(? AS bigint), CAST(? AS timestamp))");
+            args[i * 2] = chunk.get(i).getKey();
+            args[i * 2 + 1] = Timestamp.valueOf(chunk.get(i).getValue());
+        }
+        sql.append(") AS v(id, ts) WHERE u.user_id = v.id");
+        return jdbcTemplate.update(sql.toString(), args);
+    }
+}
@@ -0,0 +1,116 @@
+package com.ecommerce.vic.service;
+
+import com.ecommerce.vic.dto.product.StockLevel;
+import com.ecommerce.vic.dto.report.LowStockItem;
+import com.ecommerce.vic.event.ProductDeletedEvent;
+import com.ecommerce.vic.event.StockLevelChangedEvent;
+import com.ecommerce.vic.model.Product;
+import com.ecommerce.vic.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LowStockMonitor {
+    private final ProductRepository productRepository;
+    private final Map<Long, LowStockItem> lowStock = new ConcurrentHashMap<>();
+    private final Lock[] locks = IntStream.range(0, 64).mapToObj(i -> new ReentrantLock()).toArray(Lock[]::new);
+
+    @Value("${inventory.default-reorder-point:10}")
+    private int defaultReorderPoint;
+
+    // Seeds the live set once; afterwards stock change events keep it current
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        List<Product> products = productRepository.findAtOrBelowReorderPoint(defaultReorderPoint);
+        LocalDateTime now = LocalDateTime.now();
+        products.forEach(product -> lowStock.put(product.getProductId(), new LowStockItem(
+                product.getProductId(),
+                product.getName(),
+                product.getStockQuantity(),
+                reorderPointOf(product.getReorderPoint()),
+                now
+        )));
+        log.info("Low stock monitor initialized with {} products", lowStock.size());
+    }
+
+    // Events from concurrent transactions arrive in no particular order, so the quantity an event carries may
+    // already be stale. The committed level is re-read under a per-product lock instead, so whichever handler
+    // runs last applies the latest state.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockLevelChanged(StockLevelChangedEvent event) {
+        Lock lock = lockFor(event.productId());
+        lock.lock();
+        try {
+            productRepository.findStockLevel(event.productId())
+                    .ifPresentOrElse(this::apply, () -> lowStock.remove(event.productId()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductDeleted(ProductDeletedEvent event) {
+        Lock lock = lockFor(event.productId());
+        lock.lock();
+        try {
+            lowStock.remove(event.productId());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public List<LowStockItem> getLowStockItems() {
+        return lowStock.values().stream()
+                .sorted(Comparator.comparingInt(LowStockItem::stockQuantity))
+                .toList();
+    }
+
+    private void apply(StockLevel level) {
+        int reorderPoint = reorderPointOf(level.reorderPoint());
+
+        if (level.stockQuantity() > reorderPoint) {
+            if (lowStock.remove(level.productId()) != null) {
+                log.info("Product {} restocked to {} (reorder point {})",
+                        level.productId(), level.stockQuantity(), reorderPoint);
+            }
+            return;
+        }
+
+        LowStockItem existing = lowStock.get(level.productId());
+        if (existing == null) {
+            log.warn("Product {} ({}) dropped to {} units, at or below reorder point {}",
+                    level.productId(), level.name(), level.stockQuantity(), reorderPoint);
+        }
+        lowStock.put(level.productId(), new LowStockItem(
+                level.productId(),
+                level.name(),
+                level.stockQuantity(),
+                reorderPoint,
+                existing != null ? existing.since() : LocalDateTime.now()
+        ));
+    }
+
+    private Lock lockFor(Long productId) {
+        return locks[Math.floorMod(productId.hashCode(), locks.length)];
+    }
+
+    public int reorderPointOf(Integer reorderPoint) {
+        return reorderPoint != null ? reorderPoint : defaultReorderPoint;
+    }
+}
@@ -0,0 +1,238 @@
+package com.ecommerce.vic.service;
+
+import com.ecommerce.vic.analytics.OrderLineStore;
+import com.ecommerce.vic.constants.AnalyticsDimension;
+import com.ecommerce.vic.constants.OrderStatus;
+import com.ecommerce.vic.dto.report.OrderLineAnalyticsResponse;
+import com.ecommerce.vic.dto.report.OrderLineGroup;
+import com.ecommerce.vic.dto.report.OrderLineRow;
+import com.ecommerce.vic.exception.InvalidOperationException;
+import com.ecommerce.vic.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+@Slf4j
+public class OrderAnalyticsService {
+    // Bounds memory if something leaves holes faster than they expire
+    private static final int MAX_TRACKED_GAPS = 100_000;
+    private static final int DEFAULT_STATUS_MASK = statusMask(List.of(
+            OrderStatus.PENDING, OrderStatus.PROCESSING, OrderStatus.SHIPPED, OrderStatus.COMPLETED));
+
+    private final OrderRepository orderRepository;
+    private final OrderLineStore store;
+    private final int batchSize;
+    private final Duration lateCommitWindow;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private long lastItemId = 0;
+    // Item ids below the watermark that were not there when it passed them, with when to stop looking.
+    // IDENTITY values are handed out at insert, so a checkout can commit after a higher id was already read;
+    // rolled-back inserts leave holes that never fill, hence the expiry
+    private final Map<Long, LocalDateTime> gaps = new HashMap<>();
+    private LocalDateTime lastStatusSync;
+    private volatile LocalDateTime refreshedAt;
+
+    public OrderAnalyticsService(
+            OrderRepository orderRepository,
+            @Value("${analytics.max-lines:5000000}") int maxLines,
+            @Value("${analytics.batch-size:50000}") int batchSize,
+            @Value("${analytics.late-commit-window:10m}") Duration lateCommitWindow) {
+        this.orderRepository = orderRepository;
+        this.store = new OrderLineStore(maxLines);
+        this.batchSize = batchSize;
+        this.lateCommitWindow = lateCommitWindow;
+    }
+
+    @Scheduled(
+            initialDelayString = "${analytics.initial-delay-ms:30000}",
+            fixedDelayString = "${analytics.refresh-interval-ms:60000}")
+    public void refresh() {
+        if (!refreshLock.tryLock()) {
+            return;
+        }
+        try {
+            // updatedAt is stamped before commit, so each sync re-reads the whole late-commit window
+            LocalDateTime syncStartedAt = LocalDateTime.now().minus(lateCommitWindow);
+            int appended = appendLateLines() + appendNewLines();
+            int updated = applyStatusChanges();
+            lastStatusSync = syncStartedAt;
+            refreshedAt = LocalDateTime.now();
+            if (appended > 0 || updated > 0) {
+                log.debug("Order line snapshot refreshed: {} appended, {} status updates, {} total",
+                        appended, updated, store.size());
+            }
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    public OrderLineAnalyticsResponse aggregate(
+            AnalyticsDimension groupBy,
+            LocalDate startDate,
+            LocalDate endDate,
+            String category,
+            List<OrderStatus> statuses,
+            int limit) {
+        if (startDate != null && endDate != null && endDate.isBefore(startDate)) {
+            throw new InvalidOperationException("End date must not be before start date");
+        }
+        if (limit < 1) {
+            throw new InvalidOperationException("Limit must be at least 1");
+        }
+
+        int fromDay = startDate != null ? (int) startDate.toEpochDay() : Integer.MIN_VALUE;
+        int toDay = endDate != null ? (int) endDate.toEpochDay() : Integer.MAX_VALUE;
+        int categoryCode = category != null ? store.findCategoryCode(category) : -1;
+        int mask = statuses == null || statuses.isEmpty() ? DEFAULT_STATUS_MASK : statusMask(statuses);
+
+        List<OrderLineGroup> groups = new ArrayList<>();
+        long matchedLines = 0;
+        long totalQuantity = 0;
+        long totalAmount = 0;
+
+        if (category == null || categoryCode >= 0) {
+            OrderLineStore.Aggregation aggregation = store.aggregate(groupBy, fromDay, toDay, categoryCode, mask);
+            long[] lines = aggregation.lines();
+            for (int key = 0; key < lines.length; key++) {
+                if (lines[key] == 0) {
+                    continue;
+                }
+                matchedLines += lines[key];
+                totalQuantity += aggregation.quantities()[key];
+                totalAmount += aggregation.amountsMinor()[key];
+                groups.add(new OrderLineGroup(
+                        groupKey(groupBy, aggregation.key(key)),
+                        lines[key],
+                        aggregation.quantities()[key],
+                        BigDecimal.valueOf(aggregation.amountsMinor()[key], 2)));
+            }
+        }
+
+        if (groupBy != AnalyticsDimension.DAY) {
+            groups.sort(Comparator.comparing(OrderLineGroup::amount).reversed());
+        }
+        if (groups.size() > limit) {
+            groups = groups.subList(0, limit);
+        }
+
+        return new OrderLineAnalyticsResponse(
+                groupBy,
+                startDate,
+                endDate,
+                matchedLines,
+                totalQuantity,
+                BigDecimal.valueOf(totalAmount, 2),
+                groups,
+                store.size(),
+                refreshedAt
+        );
+    }
+
+    private int appendNewLines() {
+        int appended = 0;
+        List<OrderLineRow> batch;
+        do {
+            batch = orderRepository.findOrderLinesAfter(lastItemId, PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            int added = store.append(batch);
+            recordGaps(batch, added);
+            appended += added;
+            if (added < batch.size()) {
+                log.warn("Order line snapshot is full at {} lines; newer lines are not included", store.size());
+                if (added > 0) {
+                    lastItemId = batch.get(added - 1).itemId();
+                }
+                break;
+            }
+            lastItemId = batch.get(batch.size() - 1).itemId();
+        } while (batch.size() == batchSize);
+        return appended;
+    }
+
+    private void recordGaps(List<OrderLineRow> rows, int count) {
+        LocalDateTime now = LocalDateTime.now();
+        long previous = lastItemId;
+        for (int i = 0; i < count; i++) {
+            OrderLineRow row = rows.get(i);
+            // A missing line was inserted before this one, so it cannot have been pending for longer
+            LocalDateTime giveUpAt = row.createdAt().plus(lateCommitWindow);
+            for (long id = previous + 1; id < row.itemId() && giveUpAt.isAfter(now); id++) {
+                if (gaps.size() >= MAX_TRACKED_GAPS) {
+                    log.warn("Tracking {} order line gaps; lines committed late beyond these are not picked up",
+                            gaps.size());
+                    return;
+                }
+                gaps.put(id, giveUpAt);
+            }
+            previous = row.itemId();
+        }
+    }
+
+    private int appendLateLines() {
+        if (gaps.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        gaps.values().removeIf(giveUpAt -> !giveUpAt.isAfter(now));
+        List<Long> ids = new ArrayList<>(gaps.keySet());
+        int appended = 0;
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<OrderLineRow> found = orderRepository.findOrderLinesByIdIn(
+                    ids.subList(from, Math.min(ids.size(), from + batchSize)));
+            int added = store.append(found);
+            for (int i = 0; i < added; i++) {
+                gaps.remove(found.get(i).itemId());
+            }
+            appended += added;
+        }
+        return appended;
+    }
+
+    private int applyStatusChanges() {
+        // Lines loaded on the first pass already carry their current status
+        if (lastStatusSync == null) {
+            return 0;
+        }
+        List<Object[]> changes = orderRepository.findStatusesUpdatedSince(lastStatusSync);
+        int[] orderIds = new int[changes.size()];
+        byte[] statuses = new byte[changes.size()];
+        for (int i = 0; i < changes.size(); i++) {
+            orderIds[i] = Math.toIntExact((Long) changes.get(i)[0]);
+            statuses[i] = (byte) ((OrderStatus) changes.get(i)[1]).ordinal();
+        }
+        return store.updateStatuses(orderIds, statuses);
+    }
+
+    private String groupKey(AnalyticsDimension groupBy, int key) {
+        return switch (groupBy) {
+            case CATEGORY -> store.categoryName(key);
+            case DAY -> LocalDate.ofEpochDay(key).toString();
+            default -> String.valueOf(key);
+        };
+    }
+
+    private static int statusMask(List<OrderStatus> statuses) {
+        int mask = 0;
+        for (OrderStatus status : statuses) {
+            mask |= 1 << status.ordinal();
+        }
+        return mask;
+    }
+}
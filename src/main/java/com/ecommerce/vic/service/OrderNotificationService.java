@@ -0,0 +1,144 @@
+package com.ecommerce.vic.service;
+
+import com.ecommerce.vic.constants.OrderStatus;
+import com.ecommerce.vic.event.OrderStatusChangedEvent;
+import com.ecommerce.vic.model.Order;
+import com.ecommerce.vic.repository.OrderRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Coalesces order status changes per customer. The first change opens a window; changes arriving before it
+// closes only update the buffered status, and the customer then gets one email covering every order touched.
+// Flushes load all affected orders in one query and queue every email in a single transaction.
+@Service
+@Slf4j
+public class OrderNotificationService {
+    private final OrderRepository orderRepository;
+    private final EmailService emailService;
+    private final TransactionTemplate transactionTemplate;
+    private final long windowMillis;
+    private final int batchSize;
+    private final Map<Long, PendingDigest> pending = new ConcurrentHashMap<>();
+
+    public OrderNotificationService(
+            OrderRepository orderRepository,
+            EmailService emailService,
+            PlatformTransactionManager transactionManager,
+            @Value("${notifications.order-digest.window-ms:60000}") long windowMillis,
+            @Value("${notifications.order-digest.batch-size:500}") int batchSize) {
+        this.orderRepository = orderRepository;
+        this.emailService = emailService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.windowMillis = windowMillis;
+        this.batchSize = batchSize;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        pending.compute(event.userId(), (userId, digest) -> {
+            PendingDigest updated = digest != null ? digest : new PendingDigest(System.currentTimeMillis());
+            updated.statuses().put(event.orderId(), event.newStatus());
+            return updated;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.order-digest.flush-interval-ms:5000}")
+    public void flushDue() {
+        flush(System.currentTimeMillis() - windowMillis);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush(Long.MAX_VALUE);
+    }
+
+    private void flush(long openedBefore) {
+        Map<Long, Map<Long, OrderStatus>> due = new HashMap<>();
+        for (Map.Entry<Long, PendingDigest> entry : pending.entrySet()) {
+            PendingDigest digest = entry.getValue();
+            // remove(key, value) keeps a digest that was replaced while draining
+            if (digest.openedAt() <= openedBefore && pending.remove(entry.getKey(), digest)) {
+                due.put(entry.getKey(), digest.statuses());
+            }
+        }
+        if (due.isEmpty()) {
+            return;
+        }
+
+        List<Long> userIds = new ArrayList<>(due.keySet());
+        int sent = 0;
+        for (int from = 0; from < userIds.size(); from += batchSize) {
+            List<Long> chunk = userIds.subList(from, Math.min(userIds.size(), from + batchSize));
+            try {
+                sent += sendChunk(chunk, due);
+            } catch (RuntimeException e) {
+                log.error("Failed to send order notifications for {} customers; re-queueing", chunk.size(), e);
+                chunk.forEach(userId -> requeue(userId, due.get(userId)));
+            }
+        }
+        log.debug("Sent {} order notification emails for {} customers", sent, userIds.size());
+    }
+
+    private int sendChunk(List<Long> userIds, Map<Long, Map<Long, OrderStatus>> due) {
+        List<Long> orderIds = new ArrayList<>();
+        userIds.forEach(userId -> orderIds.addAll(due.get(userId).keySet()));
+
+        Integer sent = transactionTemplate.execute(status -> {
+            Map<Long, List<Order>> ordersByUser = new HashMap<>();
+            for (Order order : orderRepository.findWithItemsByIdIn(orderIds)) {
+                ordersByUser.computeIfAbsent(order.getUser().getUserId(), id -> new ArrayList<>()).add(order);
+            }
+            int emails = 0;
+            for (List<Order> orders : ordersByUser.values()) {
+                orders.sort(Comparator.comparing(Order::getId));
+                String email = orders.get(0).getUser().getEmail();
+                // No customer locale is stored, so notifications use the default templates
+                if (orders.size() > 1) {
+                    emailService.sendOrderStatusDigest(email, orders, Locale.ROOT);
+                } else {
+                    sendSingle(email, orders.get(0));
+                }
+                emails++;
+            }
+            return emails;
+        });
+        return sent != null ? sent : 0;
+    }
+
+    // The order is read after the window closes, so its current status wins over the buffered one
+    private void sendSingle(String email, Order order) {
+        switch (order.getStatus()) {
+            case SHIPPED -> emailService.sendShippingNotice(email, order, Locale.ROOT);
+            case COMPLETED -> emailService.sendReceipt(email, order, Locale.ROOT);
+            default -> emailService.sendOrderStatusUpdate(email, order, Locale.ROOT);
+        }
+    }
+
+    private void requeue(Long userId, Map<Long, OrderStatus> statuses) {
+        pending.merge(userId, new PendingDigest(System.currentTimeMillis(), statuses), (current, failed) -> {
+            failed.statuses().forEach(current.statuses()::putIfAbsent);
+            return current;
+        });
+    }
+
+    private record PendingDigest(long openedAt, Map<Long, OrderStatus> statuses) {
+        PendingDigest(long openedAt) {
+            this(openedAt, new LinkedHashMap<>());
+        }
+    }
+}
@@ -5,16 +5,20 @@ import com.ecommerce.vic.dto.order.CreateOrderRequest;
 import com.ecommerce.vic.dto.order.OrderItemResponse;
 import com.ecommerce.vic.dto.order.OrderResponse;
 import com.ecommerce.vic.dto.user.PartialUserResponse;
+import com.ecommerce.vic.event.OrderStatusChangedEvent;
+import com.ecommerce.vic.event.StockLevelChangedEvent;
 import com.ecommerce.vic.exception.ResourceNotFoundException;
 import com.ecommerce.vic.exception.InvalidOperationException;
 import com.ecommerce.vic.model.*;
 import com.ecommerce.vic.repository.OrderRepository;
 import com.ecommerce.vic.repository.ProductRepository;
 import com.ecommerce.vic.repository.UserRepository;
+import com.ecommerce.vic.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,10 +33,13 @@ public class OrderService {
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EmailService emailService;
+    private final CartStore cartStore;
 
     @Transactional
     public OrderResponse createOrder(CreateOrderRequest request) {
-        User currentUser = getCurrentUser();
+        User currentUser = userRepository.getReferenceById(AuthenticatedUser.current().userId());
 
         // Process order items
         List<OrderItem> orderItems = request.items().stream()
@@ -45,8 +52,10 @@ public class OrderService {
                     }
 
                     // Update stock
-                    product.setStockQuantity(product.getStockQuantity() - item.quantity());
+                    int previousQuantity = product.getStockQuantity();
+                    product.setStockQuantity(previousQuantity - item.quantity());
                     productRepository.save(product);
+                    eventPublisher.publishEvent(StockLevelChangedEvent.of(product, previousQuantity));
 
                     return OrderItem.builder()
                             .product(product)
@@ -73,13 +82,15 @@ public class OrderService {
         orderItems.forEach(item -> item.setOrder(order));
 
         Order savedOrder = orderRepository.save(order);
+        emailService.sendOrderConfirmation(AuthenticatedUser.current().email(), savedOrder, LocaleContextHolder.getLocale());
+        cartStore.flushSoon(AuthenticatedUser.current().userId());
         return mapToOrderResponse(savedOrder);
     }
 
     @Transactional(readOnly = true)
     public Page<OrderResponse> getMyOrders(int page, int size) {
-        User currentUser = getCurrentUser();
-        return orderRepository.findByUserOrderByCreatedAtDesc(currentUser, PageRequest.of(page, size))
+        Long userId = AuthenticatedUser.current().userId();
+        return orderRepository.findByUserUserIdOrderByCreatedAtDesc(userId, PageRequest.of(page, size))
                 .map(this::mapToOrderResponse);
     }
 
@@ -100,26 +111,23 @@ public class OrderService {
         // Restore product stock
         order.getOrderItems().forEach(item -> {
             Product product = item.getProduct();
-            product.setStockQuantity(product.getStockQuantity() + item.getQuantity());
+            int previousQuantity = product.getStockQuantity();
+            product.setStockQuantity(previousQuantity + item.getQuantity());
             productRepository.save(product);
+            eventPublisher.publishEvent(StockLevelChangedEvent.of(product, previousQuantity));
         });
 
         order.setStatus(OrderStatus.CANCELLED);
-        return mapToOrderResponse(orderRepository.save(order));
-    }
-
-    private User getCurrentUser() {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByEmail(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        Order savedOrder = orderRepository.save(order);
+        eventPublisher.publishEvent(OrderStatusChangedEvent.of(savedOrder, OrderStatus.PENDING));
+        return mapToOrderResponse(savedOrder);
     }
 
     private Order findOrderAndVerifyAccess(Long id) {
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found: " + id));
 
-        User currentUser = getCurrentUser();
-        if (!order.getUser().getUserId().equals(currentUser.getUserId())) {
+        if (!order.getUser().getUserId().equals(AuthenticatedUser.current().userId())) {
             throw new InvalidOperationException("Not authorized to access this order");
         }
 
@@ -0,0 +1,58 @@
+package com.ecommerce.vic.service;
+
+import com.ecommerce.vic.dto.product.ProductPrice;
+import com.ecommerce.vic.event.ProductDeletedEvent;
+import com.ecommerce.vic.event.ProductPriceChangedEvent;
+import com.ecommerce.vic.repository.ProductRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Current price and price version per product, so carts can spot stale lines without a query per view.
+// Local price changes update entries immediately; the write expiry bounds staleness for changes made elsewhere.
+@Service
+public class ProductPriceIndex {
+    private final ProductRepository productRepository;
+    private final Cache<Long, ProductPrice> prices;
+
+    public ProductPriceIndex(
+            ProductRepository productRepository,
+            MeterRegistry meterRegistry,
+            @Value("${carts.pricing.max-size:50000}") long maxSize,
+            @Value("${carts.pricing.ttl:1m}") Duration ttl) {
+        this.productRepository = productRepository;
+        this.prices = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, prices, "products.prices");
+    }
+
+    // Products that no longer exist are simply absent from the result
+    public Map<Long, ProductPrice> getPrices(Collection<Long> productIds) {
+        return prices.getAll(productIds, missing -> productRepository.findPricesByIdIn(Set.copyOf(missing)).stream()
+                .collect(Collectors.toMap(ProductPrice::productId, Function.identity())));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPriceChanged(ProductPriceChangedEvent event) {
+        prices.put(event.productId(), new ProductPrice(event.productId(), event.price(), event.priceVersion()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductDeleted(ProductDeletedEvent event) {
+        prices.invalidate(event.productId());
+    }
+}
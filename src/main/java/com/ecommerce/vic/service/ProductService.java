@@ -2,15 +2,19 @@ package com.ecommerce.vic.service;
 
 import com.ecommerce.vic.dto.product.ProductRequest;
 import com.ecommerce.vic.dto.product.ProductResponse;
+import com.ecommerce.vic.event.ProductDeletedEvent;
+import com.ecommerce.vic.event.ProductPriceChangedEvent;
+import com.ecommerce.vic.event.StockLevelChangedEvent;
 import com.ecommerce.vic.exception.InsufficientStockException;
 import com.ecommerce.vic.exception.ResourceNotFoundException;
 import com.ecommerce.vic.exception.UnauthorizedException;
 import com.ecommerce.vic.model.Product;
 import com.ecommerce.vic.model.User;
-import com.ecommerce.vic.constants.UserRole;
 import com.ecommerce.vic.repository.ProductRepository;
+import com.ecommerce.vic.security.AuthenticatedUser;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -25,6 +29,7 @@ import java.time.LocalDateTime;
 public class ProductService {
     private final ProductRepository productRepository;
     private final UserService userService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public Page<ProductResponse> getAllProducts(String category, int page, int size, String sort) {
         Sort sorting = createSort(sort);
@@ -44,14 +49,15 @@ public class ProductService {
     }
 
     public ProductResponse createProduct(ProductRequest request) {
-        User admin = userService.getCurrentUser();
-        validateAdminRole(admin);
+        validateAdminRole();
+        User admin = userService.getCurrentUserReference();
 
         Product product = Product.builder()
                 .name(request.name())
                 .description(request.description())
                 .price(request.price())
                 .stockQuantity(request.stockQuantity())
+                .reorderPoint(request.reorderPoint())
                 .imageUrl(request.imageUrl())
                 .category(request.category())
                 .size(request.size())
@@ -59,46 +65,57 @@ public class ProductService {
                 .createdAt(LocalDateTime.now())
                 .build();
 
-        return mapToResponse(productRepository.save(product));
+        Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(StockLevelChangedEvent.of(savedProduct, savedProduct.getStockQuantity()));
+        return mapToResponse(savedProduct);
     }
 
     public ProductResponse updateProduct(Long id, ProductRequest request) {
-        User admin = userService.getCurrentUser();
-        validateAdminRole(admin);
+        validateAdminRole();
 
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
 
+        int previousQuantity = product.getStockQuantity();
+        // Carts holding this product reprice lazily when next read
+        boolean priceChanged = productRepository.updatePrice(id, request.price()) > 0;
         product.setName(request.name());
         product.setDescription(request.description());
         product.setPrice(request.price());
         product.setStockQuantity(request.stockQuantity());
+        product.setReorderPoint(request.reorderPoint());
         product.setImageUrl(request.imageUrl());
         product.setCategory(request.category());
         product.setSize(request.size());
         product.setUpdatedAt(LocalDateTime.now());
 
-        return mapToResponse(productRepository.save(product));
+        Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(StockLevelChangedEvent.of(savedProduct, previousQuantity));
+        if (priceChanged) {
+            eventPublisher.publishEvent(new ProductPriceChangedEvent(
+                    savedProduct.getProductId(), savedProduct.getPrice(), productRepository.findPriceVersion(id)));
+        }
+        return mapToResponse(savedProduct);
     }
 
     public void deleteProduct(Long id) {
-        User admin = userService.getCurrentUser();
-        validateAdminRole(admin);
+        validateAdminRole();
 
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
 
         productRepository.delete(product);
+        eventPublisher.publishEvent(new ProductDeletedEvent(id));
     }
 
     public ProductResponse updateStock(Long id, Integer quantity) {
-        User admin = userService.getCurrentUser();
-        validateAdminRole(admin);
+        validateAdminRole();
 
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
 
-        int newQuantity = product.getStockQuantity() + quantity;
+        int previousQuantity = product.getStockQuantity();
+        int newQuantity = previousQuantity + quantity;
         if (newQuantity < 0) {
             throw new InsufficientStockException("Insufficient stock");
         }
@@ -106,7 +123,9 @@ public class ProductService {
         product.setStockQuantity(newQuantity);
         product.setUpdatedAt(LocalDateTime.now());
 
-        return mapToResponse(productRepository.save(product));
+        Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(StockLevelChangedEvent.of(savedProduct, previousQuantity));
+        return mapToResponse(savedProduct);
     }
 
     public Page<ProductResponse> searchProducts(String query, int page, int size) {
@@ -115,13 +134,14 @@ public class ProductService {
                 .map(this::mapToResponse);
     }
 
-    private ProductResponse mapToResponse(Product product) {
+    ProductResponse mapToResponse(Product product) {
         return new ProductResponse(
                 product.getProductId(),
                 product.getName(),
                 product.getDescription(),
                 product.getPrice(),
                 product.getStockQuantity(),
+                product.getReorderPoint(),
                 product.getImageUrl(),
                 product.getCategory(),
                 product.getSize(),
@@ -131,13 +151,13 @@ public class ProductService {
         );
     }
 
-    private void validateAdminRole(User user) {
-        if (user.getRole() != UserRole.ADMIN) {
+    private void validateAdminRole() {
+        if (!AuthenticatedUser.current().isAdmin()) {
             throw new UnauthorizedException("Only administrators can perform this operation");
         }
     }
 
-    private Sort createSort(String sort) {
+    Sort createSort(String sort) {
         if (sort == null) {
             return Sort.by(Sort.Direction.DESC, "createdAt");
         }
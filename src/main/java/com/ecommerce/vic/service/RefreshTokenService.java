@@ -0,0 +1,105 @@
+package com.ecommerce.vic.service;
+
+import com.ecommerce.vic.config.JwtConfig;
+import com.ecommerce.vic.event.UserAccountChangedEvent;
+import com.ecommerce.vic.exception.UnauthorizedException;
+import com.ecommerce.vic.model.RefreshToken;
+import com.ecommerce.vic.repository.RefreshTokenRepository;
+import com.ecommerce.vic.security.TokenRevocationList;
+import com.ecommerce.vic.util.Hashing;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RefreshTokenService {
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TokenRevocationList revocationList;
+    private final JwtConfig jwtConfig;
+
+    public record Rotation(Long userId, String refreshToken) {}
+
+    @Transactional
+    public String issue(Long userId) {
+        return issue(userId, UUID.randomUUID().toString());
+    }
+
+    // A token that was already rotated is being replayed, so the whole family and the user's access tokens
+    // are revoked; that work must survive the rejection
+    @Transactional(noRollbackFor = UnauthorizedException.class)
+    public Rotation rotate(String rawToken) {
+        RefreshToken token = refreshTokenRepository.findByTokenHash(Hashing.sha256Hex(rawToken))
+                .orElseThrow(() -> new UnauthorizedException("Invalid refresh token"));
+
+        if (token.isExpired()) {
+            refreshTokenRepository.delete(token);
+            throw new UnauthorizedException("Refresh token has expired");
+        }
+
+        if (token.getUsedAt() != null || refreshTokenRepository.markUsed(token.getId(), LocalDateTime.now()) == 0) {
+            log.warn("Refresh token reuse detected for user {}; revoking token family {}",
+                    token.getUserId(), token.getFamilyId());
+            refreshTokenRepository.deleteByFamily(token.getFamilyId());
+            revocationList.revokeAllForUser(token.getUserId());
+            throw new UnauthorizedException("Refresh token has already been used");
+        }
+
+        return new Rotation(token.getUserId(), issue(token.getUserId(), token.getFamilyId()));
+    }
+
+    @Transactional
+    public void revoke(Long userId, String rawToken) {
+        refreshTokenRepository.findByTokenHash(Hashing.sha256Hex(rawToken))
+                .filter(token -> token.getUserId().equals(userId))
+                .ifPresent(token -> refreshTokenRepository.deleteByFamily(token.getFamilyId()));
+    }
+
+    // Runs inside the publishing transaction so a password change or deletion and its revocation commit together
+    @EventListener
+    @Transactional
+    public void onUserAccountChanged(UserAccountChangedEvent event) {
+        if (event.change() == UserAccountChangedEvent.Change.CREDENTIALS
+                || event.change() == UserAccountChangedEvent.Change.DELETED) {
+            refreshTokenRepository.deleteByUser(event.userId());
+            revocationList.revokeAllForUser(event.userId());
+        }
+    }
+
+    @Scheduled(cron = "${jwt.refresh-cleanup-cron:0 15 * * * *}")
+    @Transactional
+    public void deleteExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Deleted {} expired refresh tokens", deleted);
+        }
+    }
+
+    private String issue(Long userId, String familyId) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        LocalDateTime now = LocalDateTime.now();
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(Hashing.sha256Hex(rawToken))
+                .userId(userId)
+                .familyId(familyId)
+                .createdAt(now)
+                .expiresAt(now.plus(jwtConfig.getRefreshExpiration(), ChronoUnit.MILLIS))
+                .build());
+        return rawToken;
+    }
+}
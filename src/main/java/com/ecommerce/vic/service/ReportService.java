@@ -1,4 +1,156 @@
 package com.ecommerce.vic.service;
 
+import com.ecommerce.vic.config.ReportConfig;
+import com.ecommerce.vic.constants.OrderStatus;
+import com.ecommerce.vic.constants.ReportGranularity;
+import com.ecommerce.vic.dto.report.SalesTimeSeriesPoint;
+import com.ecommerce.vic.dto.report.SalesTimeSeriesResponse;
+import com.ecommerce.vic.exception.InvalidOperationException;
+import com.ecommerce.vic.exception.ServiceOverloadedException;
+import com.ecommerce.vic.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
 public class ReportService {
+    private final OrderRepository orderRepository;
+    private final ReportConfig reportConfig;
+    private final ThreadPoolTaskExecutor reportExecutor;
+
+    public SalesTimeSeriesResponse generateSalesTimeSeries(
+            LocalDate startDate, LocalDate endDate, ReportGranularity granularity) {
+        if (endDate.isBefore(startDate)) {
+            throw new InvalidOperationException("End date must not be before start date");
+        }
+
+        LocalDateTime rangeEnd = endDate.plusDays(1).atStartOfDay();
+        List<LocalDateTime> periods = listPeriods(startDate.atStartOfDay(), rangeEnd, granularity);
+        if (periods.size() > reportConfig.getMaxBuckets()) {
+            throw new InvalidOperationException("Requested range produces too many " +
+                    granularity.name().toLowerCase() + " buckets: " + periods.size());
+        }
+
+        Map<LocalDateTime, SalesTimeSeriesPoint> computed =
+                computePartitions(periods, startDate.atStartOfDay(), rangeEnd, granularity);
+
+        List<SalesTimeSeriesPoint> points = new ArrayList<>(periods.size());
+        BigDecimal totalRevenue = BigDecimal.ZERO;
+        long totalOrders = 0;
+        for (LocalDateTime period : periods) {
+            SalesTimeSeriesPoint point = computed.getOrDefault(period,
+                    new SalesTimeSeriesPoint(period, 0, BigDecimal.ZERO));
+            points.add(point);
+            totalRevenue = totalRevenue.add(point.revenue());
+            totalOrders += point.orderCount();
+        }
+
+        return new SalesTimeSeriesResponse(startDate, endDate, granularity, totalRevenue, totalOrders, points);
+    }
+
+    private Map<LocalDateTime, SalesTimeSeriesPoint> computePartitions(
+            List<LocalDateTime> periods, LocalDateTime rangeStart, LocalDateTime rangeEnd,
+            ReportGranularity granularity) {
+        int partitions = Math.max(1, Math.min(
+                reportConfig.getMaxParallelism(),
+                (periods.size() + reportConfig.getMinBucketsPerPartition() - 1) / reportConfig.getMinBucketsPerPartition()));
+        int perPartition = (periods.size() + partitions - 1) / partitions;
+
+        // Partition boundaries sit on bucket starts, so no bucket is split across two queries
+        List<CompletableFuture<List<Object[]>>> futures = new ArrayList<>(partitions);
+        try {
+            for (int from = 0; from < periods.size(); from += perPartition) {
+                int to = from + perPartition;
+                // A leading week bucket may begin before the requested start date
+                LocalDateTime partitionStart = from == 0 ? rangeStart : periods.get(from);
+                LocalDateTime partitionEnd = to < periods.size() ? periods.get(to) : rangeEnd;
+                futures.add(CompletableFuture.supplyAsync(
+                        () -> orderRepository.sumSalesByPeriod(
+                                granularity.name().toLowerCase(),
+                                OrderStatus.COMPLETED.name(),
+                                partitionStart,
+                                partitionEnd),
+                        reportExecutor));
+            }
+        } catch (TaskRejectedException e) {
+            // The report pool and its queue are full; shed the request rather than answer with a 500
+            futures.forEach(future -> future.cancel(true));
+            throw new ServiceOverloadedException("Too many reports running, please retry shortly");
+        }
+
+        Map<LocalDateTime, SalesTimeSeriesPoint> merged = new HashMap<>(periods.size() * 2);
+        try {
+            for (CompletableFuture<List<Object[]>> future : futures) {
+                for (Object[] row : future.join()) {
+                    LocalDateTime period = toLocalDateTime(row[0]);
+                    merged.put(period, new SalesTimeSeriesPoint(
+                            period,
+                            ((Number) row[1]).longValue(),
+                            toBigDecimal(row[2])));
+                }
+            }
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(true));
+            log.error("Sales time series partition failed", e.getCause());
+            throw e.getCause() instanceof RuntimeException runtimeException ? runtimeException : e;
+        }
+        return merged;
+    }
+
+    private List<LocalDateTime> listPeriods(LocalDateTime start, LocalDateTime end, ReportGranularity granularity) {
+        List<LocalDateTime> periods = new ArrayList<>();
+        for (LocalDateTime period = truncate(start, granularity); period.isBefore(end); period = next(period, granularity)) {
+            periods.add(period);
+        }
+        return periods;
+    }
+
+    private LocalDateTime truncate(LocalDateTime dateTime, ReportGranularity granularity) {
+        return switch (granularity) {
+            case HOUR -> dateTime.truncatedTo(ChronoUnit.HOURS);
+            case DAY -> dateTime.truncatedTo(ChronoUnit.DAYS);
+            // Matches PostgreSQL date_trunc('week'), which starts weeks on Monday
+            case WEEK -> dateTime.truncatedTo(ChronoUnit.DAYS).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        };
+    }
+
+    private LocalDateTime next(LocalDateTime period, ReportGranularity granularity) {
+        return switch (granularity) {
+            case HOUR -> period.plusHours(1);
+            case DAY -> period.plusDays(1);
+            case WEEK -> period.plusWeeks(1);
+        };
+    }
+
+    private LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+
+    private BigDecimal toBigDecimal(Object value) {
+        if (value instanceof BigDecimal decimal) {
+            return decimal;
+        }
+        return new BigDecimal(value.toString());
+    }
 }
@@ -1,16 +1,190 @@
 package com.ecommerce.vic.service;
 
+import com.ecommerce.vic.config.SmsConfig;
+import com.ecommerce.vic.event.SmsRequestedEvent;
+import com.ecommerce.vic.notification.NotificationTemplates;
+import com.ecommerce.vic.notification.RenderedNotification;
+import com.ecommerce.vic.sms.SmsDeliveryException;
+import com.ecommerce.vic.sms.SmsMessage;
+import com.ecommerce.vic.sms.SmsProvider;
+import com.ecommerce.vic.util.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
-import lombok.RequiredArgsConstructor;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 
+// Callers only publish an event; after commit the message joins a bounded in-memory queue that the sms
+// workers drain in provider-sized batches, paced by the provider's rate limit and retried with backoff
 @Service
-@RequiredArgsConstructor
+@Slf4j
 public class SmsService {
-    // Implement with your preferred SMS provider (Twilio, AWS SNS, etc.)
+    private final SmsProvider provider;
+    private final NotificationTemplates templates;
+    private final SmsConfig config;
+    private final ThreadPoolTaskExecutor smsExecutor;
+    private final TaskScheduler taskScheduler;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BlockingQueue<PendingSms> queue;
+    private final TokenBucket rateLimit;
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+    private final Counter sentCounter;
+    private final Counter retriedCounter;
+    private final Counter failedCounter;
+    private final Counter droppedCounter;
+
+    public SmsService(
+            SmsProvider provider,
+            NotificationTemplates templates,
+            SmsConfig config,
+            ThreadPoolTaskExecutor smsExecutor,
+            TaskScheduler taskScheduler,
+            ApplicationEventPublisher eventPublisher,
+            MeterRegistry meterRegistry) {
+        this.provider = provider;
+        this.templates = templates;
+        this.config = config;
+        this.smsExecutor = smsExecutor;
+        this.taskScheduler = taskScheduler;
+        this.eventPublisher = eventPublisher;
+        this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+        this.rateLimit = new TokenBucket(config.getRateCapacity(), config.getRatePeriod(), System.nanoTime());
+        Gauge.builder("sms.queue.depth", queue, BlockingQueue::size)
+                .tag("provider", provider.name())
+                .register(meterRegistry);
+        this.sentCounter = meterRegistry.counter("sms.delivered", "provider", provider.name(), "outcome", "sent");
+        this.retriedCounter = meterRegistry.counter("sms.delivered", "provider", provider.name(), "outcome", "retry");
+        this.failedCounter = meterRegistry.counter("sms.delivered", "provider", provider.name(), "outcome", "failed");
+        this.droppedCounter = meterRegistry.counter("sms.delivered", "provider", provider.name(), "outcome", "dropped");
+        log.info("SMS delivery through the {} provider", provider.name());
+    }
+
     public void sendVerificationSms(String phoneNumber, String code) {
-        // Implementation depends on your SMS provider
-        // Example using Twilio would go here
-        System.out.println("SMS verification code " + code + " sent to " + phoneNumber);
+        RenderedNotification message = templates.render(
+                "sms-verification", LocaleContextHolder.getLocale(), Map.of("code", code));
+        eventPublisher.publishEvent(new SmsRequestedEvent(phoneNumber, message.body().strip()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSmsRequested(SmsRequestedEvent event) {
+        enqueue(new PendingSms(new SmsMessage(event.phoneNumber(), event.body()), 1));
+    }
+
+    private void enqueue(PendingSms sms) {
+        // Never blocks the caller: a full queue means the provider is far behind, so the message is dropped
+        if (!queue.offer(sms)) {
+            droppedCounter.increment();
+            log.warn("SMS queue full, dropping message to {}", sms.message().to());
+            return;
+        }
+        wake();
+    }
+
+    private void wake() {
+        int active;
+        while ((active = activeWorkers.get()) < config.getWorkers()) {
+            if (!activeWorkers.compareAndSet(active, active + 1)) {
+                continue;
+            }
+            try {
+                smsExecutor.execute(this::drain);
+            } catch (TaskRejectedException e) {
+                activeWorkers.decrementAndGet();
+                return;
+            }
+        }
+    }
+
+    private void drain() {
+        try {
+            int maxBatch = Math.max(1, provider.maxBatchSize());
+            List<PendingSms> batch = new ArrayList<>(maxBatch);
+            PendingSms first;
+            while ((first = queue.poll()) != null) {
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+                throttle(batch.size());
+                deliver(batch);
+                batch.clear();
+            }
+        } catch (RuntimeException e) {
+            log.error("SMS worker stopped unexpectedly", e);
+        } finally {
+            activeWorkers.decrementAndGet();
+        }
+        // A message offered after the last poll but before the decrement would otherwise wait for the next one
+        if (!queue.isEmpty()) {
+            wake();
+        }
+    }
+
+    private void throttle(int permits) {
+        for (int i = 0; i < permits; i++) {
+            long waitNanos;
+            while ((waitNanos = rateLimit.tryAcquire(System.nanoTime())) > 0) {
+                LockSupport.parkNanos(waitNanos);
+            }
+        }
+    }
+
+    private void deliver(List<PendingSms> batch) {
+        List<SmsMessage> messages = batch.stream().map(PendingSms::message).toList();
+        try {
+            provider.send(messages);
+            sentCounter.increment(batch.size());
+        } catch (SmsDeliveryException e) {
+            List<PendingSms> failed = e.getRejected().isEmpty()
+                    ? batch
+                    : batch.stream().filter(sms -> e.getRejected().contains(sms.message())).toList();
+            sentCounter.increment(batch.size() - failed.size());
+            failed.forEach(sms -> retryOrGiveUp(sms, e.getMessage(), e.isRetryable()));
+        } catch (RuntimeException e) {
+            batch.forEach(sms -> retryOrGiveUp(sms, e.toString(), true));
+        }
+    }
+
+    private void retryOrGiveUp(PendingSms sms, String error, boolean retryable) {
+        if (!retryable || sms.attempt() >= config.getMaxAttempts()) {
+            failedCounter.increment();
+            log.error("Giving up on SMS to {} after {} attempts: {}", sms.message().to(), sms.attempt(), error);
+            return;
+        }
+        retriedCounter.increment();
+        Duration delay = backoff(sms.attempt());
+        log.warn("SMS to {} failed on attempt {}, retrying in {}: {}", sms.message().to(), sms.attempt(), delay, error);
+        taskScheduler.schedule(() -> enqueue(sms.nextAttempt()), Instant.now().plus(delay));
+    }
+
+    private Duration backoff(int attempt) {
+        long initialMillis = config.getInitialBackoff().toMillis();
+        long maxMillis = config.getMaxBackoff().toMillis();
+        long delay = initialMillis << Math.min(attempt - 1, 30);
+        if (delay <= 0 || delay > maxMillis) {
+            delay = maxMillis;
+        }
+        return Duration.ofMillis(delay + ThreadLocalRandom.current().nextLong(delay / 5 + 1));
+    }
+
+    private record PendingSms(SmsMessage message, int attempt) {
+        PendingSms nextAttempt() {
+            return new PendingSms(message, attempt + 1);
+        }
     }
-}
\ No newline at end of file
+}
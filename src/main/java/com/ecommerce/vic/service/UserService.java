@@ -4,20 +4,22 @@ package com.ecommerce.vic.service;
 import com.ecommerce.vic.dto.user.ChangePasswordRequest;
 import com.ecommerce.vic.dto.user.UpdateProfileRequest;
 import com.ecommerce.vic.dto.user.UserResponse;
+import com.ecommerce.vic.event.UserAccountChangedEvent;
 import com.ecommerce.vic.exception.InvalidOperationException;
 import com.ecommerce.vic.exception.InvalidPasswordException;
 import com.ecommerce.vic.exception.ResourceNotFoundException;
 import com.ecommerce.vic.exception.UnauthorizedException;
 import com.ecommerce.vic.model.User;
 import com.ecommerce.vic.repository.UserRepository;
+import com.ecommerce.vic.security.AuthenticatedUser;
 import com.ecommerce.vic.constants.UserRole;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
@@ -26,13 +28,19 @@ import java.util.List;
 public class UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LastLoginRecorder lastLoginRecorder;
 
     public User getCurrentUser() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByEmail(email)
+        return userRepository.findById(AuthenticatedUser.current().userId())
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
     }
 
+    // Unloaded proxy for associating entities with the caller without a lookup
+    public User getCurrentUserReference() {
+        return userRepository.getReferenceById(AuthenticatedUser.current().userId());
+    }
+
     public UserResponse getCurrentUserProfile() {
         return mapToUserResponse(getCurrentUser());
     }
@@ -49,7 +57,9 @@ public class UserService {
         user.setPostalCode(request.postalCode() != null ? request.postalCode() : user.getPostalCode());
         user.setCountry(request.country() != null ? request.country() : user.getCountry());
 
-        return mapToUserResponse(userRepository.save(user));
+        User savedUser = userRepository.save(user);
+        publishAccountChange(savedUser, UserAccountChangedEvent.Change.PROFILE);
+        return mapToUserResponse(savedUser);
     }
 
     public void changePassword(ChangePasswordRequest request) {
@@ -63,13 +73,13 @@ public class UserService {
         // Update password
         user.setPasswordHash(passwordEncoder.encode(request.newPassword()));
         userRepository.save(user);
+        publishAccountChange(user, UserAccountChangedEvent.Change.CREDENTIALS);
     }
 
-    public void updateLastLogin(String email) {
-        userRepository.findByEmail(email).ifPresent(user -> {
-            user.setLastLoginAt(LocalDateTime.now());
-            userRepository.save(user);
-        });
+    // Buffered and written in batches, so no transaction or connection is needed here
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void updateLastLogin(Long userId) {
+        lastLoginRecorder.record(userId);
     }
 
     public List<UserResponse> getAllCustomers() {
@@ -80,23 +90,22 @@ public class UserService {
     }
 
     public UserResponse getUserById(Long id) {
-        User currentUser = getCurrentUser();
-        User requestedUser = userRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        AuthenticatedUser currentUser = AuthenticatedUser.current();
 
         // Users can only access their own profile unless they're admins
-        if (!currentUser.getRole().equals(UserRole.ADMIN) && !currentUser.getUserId().equals(id)) {
+        if (!currentUser.isAdmin() && !currentUser.userId().equals(id)) {
             throw new UnauthorizedException("Not authorized to access this profile");
         }
 
+        User requestedUser = userRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+
         return mapToUserResponse(requestedUser);
     }
 
     public void deleteUser(Long id) {
-        User currentUser = getCurrentUser();
-
         // Only admins can delete users
-        if (!currentUser.getRole().equals(UserRole.ADMIN)) {
+        if (!AuthenticatedUser.current().isAdmin()) {
             throw new UnauthorizedException("Not authorized to delete users");
         }
 
@@ -110,12 +119,17 @@ public class UserService {
         }
 
         userRepository.delete(userToDelete);
+        publishAccountChange(userToDelete, UserAccountChangedEvent.Change.DELETED);
     }
 
     public boolean existsByEmail(String email) {
         return userRepository.existsByEmail(email);
     }
 
+    private void publishAccountChange(User user, UserAccountChangedEvent.Change change) {
+        eventPublisher.publishEvent(new UserAccountChangedEvent(user.getUserId(), user.getEmail(), change));
+    }
+
     private UserResponse mapToUserResponse(User user) {
         return new UserResponse(
                 user.getUserId(),
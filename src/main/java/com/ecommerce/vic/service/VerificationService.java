@@ -1,19 +1,19 @@
 package com.ecommerce.vic.service;
 
 import java.time.LocalDateTime;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.Random;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.ecommerce.vic.dto.auth.PasswordResetConfirmation;
+import com.ecommerce.vic.event.UserAccountChangedEvent;
 import com.ecommerce.vic.exception.InvalidTokenException;
 import com.ecommerce.vic.exception.ResourceNotFoundException;
 import com.ecommerce.vic.model.User;
@@ -33,12 +33,15 @@ public class VerificationService {
     private final EmailService emailService;
     private final SmsService smsService;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private static final int CLEANUP_CHUNK_SIZE = 10_000;
 
     public void sendEmailVerification(User user) {
         log.debug("Attempting to send email verification for user: {}", user.getEmail());
         
-        if (tokenRepository.existsByUserAndTokenTypeAndUsedFalseAndExpiryDateAfter(
-                user, VerificationToken.TokenType.EMAIL_VERIFICATION, LocalDateTime.now())) {
+        if (tokenRepository.existsByUserUserIdAndTokenTypeAndUsedFalseAndExpiryDateAfter(
+                user.getUserId(), VerificationToken.TokenType.EMAIL_VERIFICATION, LocalDateTime.now())) {
             log.warn("Active verification token already exists for user: {}", user.getEmail());
             throw new IllegalStateException("Active verification token already exists");
         }
@@ -51,8 +54,8 @@ public class VerificationService {
 
     public void sendSmsVerification(User user) {
         // Fixed token type for SMS verification
-        if (tokenRepository.existsByUserAndTokenTypeAndUsedFalseAndExpiryDateAfter(
-                user,
+        if (tokenRepository.existsByUserUserIdAndTokenTypeAndUsedFalseAndExpiryDateAfter(
+                user.getUserId(),
                 VerificationToken.TokenType.SMS_VERIFICATION,  // Changed from EMAIL to SMS
                 LocalDateTime.now())) {
             throw new IllegalStateException("Active verification code already exists");
@@ -60,7 +63,7 @@ public class VerificationService {
 
         String code = generateSmsCode();
         saveVerificationToken(user, code, VerificationToken.TokenType.SMS_VERIFICATION);
-        smsService.sendVerificationSms(user.getPhoneNumber(), code);
+        smsService.sendVerificationSms(user.getPhone(), code);
     }
 
     @Transactional
@@ -68,17 +71,18 @@ public class VerificationService {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
-        VerificationToken verificationToken = tokenRepository.findByTokenAndTokenType(
-                        token, VerificationToken.TokenType.EMAIL_VERIFICATION)
+        VerificationToken verificationToken = findToken(user, VerificationToken.TokenType.EMAIL_VERIFICATION, token)
                 .orElseThrow(() -> new InvalidTokenException("Invalid verification token"));
 
-        validateTokenAndUser(verificationToken, user);
+        validateToken(verificationToken);
 
         user.setEmailVerified(true);
         verificationToken.setUsed(true);
 
         userRepository.save(user);
         tokenRepository.save(verificationToken);
+        eventPublisher.publishEvent(new UserAccountChangedEvent(
+                user.getUserId(), user.getEmail(), UserAccountChangedEvent.Change.VERIFICATION));
     }
 
     @Transactional
@@ -86,11 +90,10 @@ public class VerificationService {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
-        VerificationToken verificationToken = tokenRepository.findByTokenAndTokenType(
-                        code, VerificationToken.TokenType.SMS_VERIFICATION)
+        VerificationToken verificationToken = findToken(user, VerificationToken.TokenType.SMS_VERIFICATION, code)
                 .orElseThrow(() -> new InvalidTokenException("Invalid verification code"));
 
-        validateTokenAndUser(verificationToken, user);
+        validateToken(verificationToken);
 
         user.setPhoneVerified(true);
         verificationToken.setUsed(true);
@@ -105,8 +108,8 @@ public class VerificationService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
         // Fixed token type for password reset
-        if (tokenRepository.existsByUserAndTokenTypeAndUsedFalseAndExpiryDateAfter(
-                user,
+        if (tokenRepository.existsByUserUserIdAndTokenTypeAndUsedFalseAndExpiryDateAfter(
+                user.getUserId(),
                 VerificationToken.TokenType.PASSWORD_RESET,  // Changed from EMAIL to PASSWORD_RESET
                 LocalDateTime.now())) {
             throw new IllegalStateException("Active password reset token already exists");
@@ -122,24 +125,26 @@ public class VerificationService {
         User user = userRepository.findByEmail(request.email())
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
-        VerificationToken token = tokenRepository.findByTokenAndTokenType(
-                        request.token(), VerificationToken.TokenType.PASSWORD_RESET)
+        VerificationToken token = findToken(user, VerificationToken.TokenType.PASSWORD_RESET, request.token())
                 .orElseThrow(() -> new InvalidTokenException("Invalid reset token"));
 
-        validateTokenAndUser(token, user);
+        validateToken(token);
 
         user.setPasswordHash(passwordEncoder.encode(request.newPassword()));
         token.setUsed(true);
 
         userRepository.save(user);
         tokenRepository.save(token);
+        eventPublisher.publishEvent(new UserAccountChangedEvent(
+                user.getUserId(), user.getEmail(), UserAccountChangedEvent.Change.CREDENTIALS));
     }
 
-    private void validateTokenAndUser(VerificationToken token, User user) {
-        if (!token.getUser().getUserId().equals(user.getUserId())) {  // Changed from getUserId to getId
-            throw new InvalidTokenException("Token does not belong to this user");
-        }
+    private Optional<VerificationToken> findToken(User user, VerificationToken.TokenType type, String token) {
+        return tokenRepository.findFirstByUserUserIdAndTokenTypeAndTokenHashOrderByExpiryDateDesc(
+                user.getUserId(), type, VerificationToken.hash(user.getUserId(), type, token));
+    }
 
+    private void validateToken(VerificationToken token) {
         if (token.isExpired()) {
             throw new InvalidTokenException("Token has expired");
         }
@@ -159,7 +164,7 @@ public class VerificationService {
 
     private void saveVerificationToken(User user, String token, VerificationToken.TokenType type) {
         VerificationToken verificationToken = VerificationToken.builder()
-                .token(token)
+                .tokenHash(VerificationToken.hash(user.getUserId(), type, token))
                 .user(user)
                 .tokenType(type)
                 .expiryDate(LocalDateTime.now().plusHours(24))
@@ -169,35 +174,25 @@ public class VerificationService {
         tokenRepository.save(verificationToken);
     }
 
-    // Optional utility methods
+    // Set-based deletes in fixed-size chunks, each committed on its own, instead of loading every expired row
     @Scheduled(cron = "0 0 2 * * *")
-    @Transactional
     public void cleanupExpiredTokens() {
         log.info("Starting scheduled cleanup of expired tokens");
-        List<VerificationToken> expiredTokens = tokenRepository
-                .findByExpiryDateBeforeAndUsed(LocalDateTime.now(), false);
-        tokenRepository.deleteAll(expiredTokens);
-        log.info("Completed cleanup of {} expired tokens", expiredTokens.size());
+        LocalDateTime cutoff = LocalDateTime.now();
+        long deleted = 0;
+        int chunk;
+        do {
+            chunk = tokenRepository.deleteExpiredChunk(cutoff, CLEANUP_CHUNK_SIZE);
+            deleted += chunk;
+        } while (chunk == CLEANUP_CHUNK_SIZE);
+        log.info("Completed cleanup of {} expired tokens", deleted);
     }
 
     public boolean isEmailVerified(User user) {  // Changed to accept User instead of userId
-        return tokenRepository
-                .findByUserAndTokenType(user, VerificationToken.TokenType.EMAIL_VERIFICATION)
-                .map(VerificationToken::isUsed)
-                .orElse(false);
-    }
-
-    public VerificationToken validateToken(String token) {
-        return tokenRepository.findByToken(token)
-                .orElseThrow(() -> new InvalidTokenException("Token not found"));
+        return user.isEmailVerified();
     }
 
     public List<VerificationToken> getUserActiveTokens(User user) {  // Changed to accept User instead of userId
-        return Arrays.stream(VerificationToken.TokenType.values())
-                .map(tokenType -> tokenRepository.findByUserAndTokenType(user, tokenType))
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .filter(token -> !token.isExpired() && !token.isUsed())
-                .collect(Collectors.toList());
+        return tokenRepository.findActiveByUserId(user.getUserId(), LocalDateTime.now());
     }
 }
@@ -0,0 +1,67 @@
+package com.ecommerce.vic.sms;
+
+import com.ecommerce.vic.config.SmsConfig;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.util.List;
+import java.util.Map;
+
+// Posts batches as {"messages":[{"to":..,"body":..}]} to a gateway endpoint. Pointing sms.http.url at a local
+// stub server exercises the full dispatch path without a real provider account.
+@Component
+@ConditionalOnProperty(name = "sms.provider", havingValue = "http")
+public class HttpSmsProvider implements SmsProvider {
+    private final RestClient restClient;
+    private final int maxBatchSize;
+
+    public HttpSmsProvider(SmsConfig config, RestClient.Builder restClientBuilder) {
+        SmsConfig.Http http = config.getHttp();
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(http.getConnectTimeout());
+        requestFactory.setReadTimeout(http.getReadTimeout());
+        RestClient.Builder builder = restClientBuilder
+                .baseUrl(http.getUrl())
+                .requestFactory(requestFactory)
+                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+        if (StringUtils.hasText(http.getApiKey())) {
+            builder.defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + http.getApiKey());
+        }
+        this.restClient = builder.build();
+        this.maxBatchSize = Math.max(1, http.getBatchSize());
+    }
+
+    @Override
+    public String name() {
+        return "http";
+    }
+
+    @Override
+    public int maxBatchSize() {
+        return maxBatchSize;
+    }
+
+    @Override
+    public void send(List<SmsMessage> batch) throws SmsDeliveryException {
+        try {
+            restClient.post()
+                    .body(Map.of("messages", batch))
+                    .retrieve()
+                    .toBodilessEntity();
+        } catch (RestClientResponseException e) {
+            // Throttling and server errors are worth retrying; anything else is a bad request
+            int status = e.getStatusCode().value();
+            boolean retryable = status == 429 || e.getStatusCode().is5xxServerError();
+            throw new SmsDeliveryException("Gateway responded " + status, retryable, List.of(), e);
+        } catch (ResourceAccessException e) {
+            throw new SmsDeliveryException("Gateway unreachable: " + e.getMessage(), true, List.of(), e);
+        }
+    }
+}
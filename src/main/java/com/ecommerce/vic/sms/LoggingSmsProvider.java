@@ -0,0 +1,28 @@
+package com.ecommerce.vic.sms;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Development provider: messages only go to the log
+@Component
+@ConditionalOnProperty(name = "sms.provider", havingValue = "log", matchIfMissing = true)
+@Slf4j
+public class LoggingSmsProvider implements SmsProvider {
+    @Override
+    public String name() {
+        return "log";
+    }
+
+    @Override
+    public int maxBatchSize() {
+        return 100;
+    }
+
+    @Override
+    public void send(List<SmsMessage> batch) {
+        batch.forEach(message -> log.info("SMS to {}: {}", message.to(), message.body()));
+    }
+}
@@ -0,0 +1,22 @@
+package com.ecommerce.vic.sms;
+
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class SmsDeliveryException extends Exception {
+    private final boolean retryable;
+    // Messages the provider did not accept; empty means the whole batch
+    private final List<SmsMessage> rejected;
+
+    public SmsDeliveryException(String message, boolean retryable) {
+        this(message, retryable, List.of(), null);
+    }
+
+    public SmsDeliveryException(String message, boolean retryable, List<SmsMessage> rejected, Throwable cause) {
+        super(message, cause);
+        this.retryable = retryable;
+        this.rejected = rejected;
+    }
+}
@@ -0,0 +1,4 @@
+package com.ecommerce.vic.sms;
+
+public record SmsMessage(String to, String body) {
+}
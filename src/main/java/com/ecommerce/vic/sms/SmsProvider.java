@@ -0,0 +1,14 @@
+package com.ecommerce.vic.sms;
+
+import java.util.List;
+
+// Exactly one provider is active, chosen by sms.provider
+public interface SmsProvider {
+    String name();
+
+    // 1 for providers that only accept single messages
+    int maxBatchSize();
+
+    // Delivers the whole batch or throws; a partially accepted batch is reported as a failure of the rest
+    void send(List<SmsMessage> batch) throws SmsDeliveryException;
+}
@@ -0,0 +1,48 @@
+-- Runs before Hibernate's schema update on every start, so each step must be a no-op once applied.
+-- ddl-auto: update only adds tables and columns; changes it cannot express live here.
+
+DO $$
+DECLARE
+    constraint_name text;
+BEGIN
+    -- Outbox bodies are cleared once sent or failed, including those written before that was the case
+    IF to_regclass('outbound_emails') IS NOT NULL THEN
+        ALTER TABLE outbound_emails ALTER COLUMN body DROP NOT NULL;
+        UPDATE outbound_emails SET body = NULL WHERE status <> 'PENDING' AND body IS NOT NULL;
+    END IF;
+
+    IF to_regclass('verification_tokens') IS NULL THEN
+        RETURN;
+    END IF;
+
+    -- Verification tokens are stored as a digest bound to user and type instead of in plaintext
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_name = 'verification_tokens' AND column_name = 'token_hash') THEN
+        ALTER TABLE verification_tokens ADD COLUMN token_hash varchar(64);
+    END IF;
+
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'verification_tokens' AND column_name = 'token') THEN
+        -- Same digest as VerificationToken.hash, so outstanding links and codes keep working
+        UPDATE verification_tokens
+        SET token_hash = encode(sha256(convert_to(token_type || ':' || user_id || ':' || token, 'UTF8')), 'hex')
+        WHERE token_hash IS NULL;
+        ALTER TABLE verification_tokens DROP COLUMN token;
+    END IF;
+
+    ALTER TABLE verification_tokens ALTER COLUMN token_hash SET NOT NULL;
+
+    -- A user now holds several tokens (email and SMS verification, resets), so user_id is no longer unique
+    FOR constraint_name IN
+        SELECT c.conname
+        FROM pg_constraint c
+        JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = c.conkey[1]
+        WHERE c.conrelid = 'verification_tokens'::regclass
+          AND c.contype = 'u'
+          AND cardinality(c.conkey) = 1
+          AND a.attname = 'user_id'
+    LOOP
+        EXECUTE format('ALTER TABLE verification_tokens DROP CONSTRAINT %I', constraint_name);
+    END LOOP;
+END
+$$
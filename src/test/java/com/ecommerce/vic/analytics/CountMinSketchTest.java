@@ -0,0 +1,91 @@
+package com.ecommerce.vic.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CountMinSketchTest {
+    private static final int DEPTH = 4;
+    private static final int WIDTH = 1024;
+
+    @Test
+    void estimatesStayWithinTheErrorBound() {
+        CountMinSketch sketch = new CountMinSketch(DEPTH, WIDTH);
+        Map<Long, Long> actual = skewedStream(sketch, 20_000, 200_000);
+        long total = actual.values().stream().mapToLong(Long::longValue).sum();
+
+        // Overestimate is at most e/width * total with probability 1 - e^-depth per key
+        double bound = Math.E / WIDTH * total;
+        long outside = 0;
+        for (Map.Entry<Long, Long> entry : actual.entrySet()) {
+            long estimate = sketch.estimate(entry.getKey());
+            assertThat(estimate).isGreaterThanOrEqualTo(entry.getValue());
+            if (estimate - entry.getValue() > bound) {
+                outside++;
+            }
+        }
+        assertThat((double) outside / actual.size()).isLessThan(Math.exp(-DEPTH) * 2);
+    }
+
+    @Test
+    void unseenKeysEstimateNearZero() {
+        CountMinSketch sketch = new CountMinSketch(DEPTH, WIDTH);
+        Map<Long, Long> actual = skewedStream(sketch, 20_000, 200_000);
+        long total = actual.values().stream().mapToLong(Long::longValue).sum();
+
+        assertThat(sketch.estimate(-1L)).isLessThanOrEqualTo((long) (Math.E / WIDTH * total));
+    }
+
+    @Test
+    void mergeMatchesAddingToOneSketch() {
+        CountMinSketch left = new CountMinSketch(DEPTH, WIDTH);
+        CountMinSketch right = new CountMinSketch(DEPTH, WIDTH);
+        CountMinSketch combined = new CountMinSketch(DEPTH, WIDTH);
+        for (long key = 0; key < 5_000; key++) {
+            (key % 2 == 0 ? left : right).add(key, key % 7 + 1);
+            combined.add(key, key % 7 + 1);
+        }
+
+        left.merge(right);
+
+        for (long key = 0; key < 5_000; key++) {
+            assertThat(left.estimate(key)).isEqualTo(combined.estimate(key));
+        }
+    }
+
+    @Test
+    void clearResetsEveryCounter() {
+        CountMinSketch sketch = new CountMinSketch(DEPTH, WIDTH);
+        sketch.add(42L, 10);
+
+        sketch.clear();
+
+        assertThat(sketch.estimate(42L)).isZero();
+    }
+
+    @Test
+    void rejectsInvalidDimensions() {
+        assertThatThrownBy(() -> new CountMinSketch(DEPTH, 1000)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new CountMinSketch(0, WIDTH)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new CountMinSketch(DEPTH, WIDTH).merge(new CountMinSketch(DEPTH, WIDTH / 2)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // Roughly Zipfian over keys 1..distinct: a few heavy products and a long tail
+    private static Map<Long, Long> skewedStream(CountMinSketch sketch, int distinct, int events) {
+        Random random = new Random(7);
+        Map<Long, Long> actual = new HashMap<>();
+        for (int i = 0; i < events; i++) {
+            long key = (long) Math.ceil(Math.pow(distinct, random.nextDouble()));
+            long count = 1 + random.nextInt(3);
+            sketch.add(key, count);
+            actual.merge(key, count, Long::sum);
+        }
+        return actual;
+    }
+}
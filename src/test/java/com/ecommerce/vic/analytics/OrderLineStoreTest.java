@@ -0,0 +1,134 @@
+package com.ecommerce.vic.analytics;
+
+import com.ecommerce.vic.constants.AnalyticsDimension;
+import com.ecommerce.vic.constants.OrderStatus;
+import com.ecommerce.vic.dto.report.OrderLineRow;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderLineStoreTest {
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 10);
+    private static final int ALL_STATUSES = (1 << OrderStatus.values().length) - 1;
+
+    @Test
+    void groupsByProductWithArraysSizedByDistinctIds() {
+        OrderLineStore store = new OrderLineStore(100);
+        store.append(List.of(
+                line(1, 10, 2_000_000_000L, 7, DAY, 2, "10.00"),
+                line(2, 10, 5L, 7, DAY, 1, "3.50"),
+                line(3, 11, 2_000_000_000L, 900_000_000L, DAY, 1, "5.00")));
+
+        OrderLineStore.Aggregation byProduct = aggregate(store, AnalyticsDimension.PRODUCT);
+
+        assertThat(byProduct.lines()).hasSize(2);
+        assertThat(totals(byProduct)).containsExactly("2000000000=2/3/1500", "5=1/1/350");
+
+        OrderLineStore.Aggregation byCustomer = aggregate(store, AnalyticsDimension.CUSTOMER);
+        assertThat(byCustomer.lines()).hasSize(2);
+        assertThat(totals(byCustomer)).containsExactly("7=2/3/1350", "900000000=1/1/500");
+    }
+
+    @Test
+    void dayAggregationCoversOnlyTheRequestedDays() {
+        OrderLineStore store = new OrderLineStore(100);
+        store.append(List.of(
+                line(1, 10, 1L, 7, DAY.minusDays(300), 1, "1.00"),
+                line(2, 11, 1L, 7, DAY, 1, "2.00"),
+                line(3, 12, 1L, 7, DAY.plusDays(1), 1, "4.00")));
+
+        int day = (int) DAY.toEpochDay();
+        OrderLineStore.Aggregation oneDay = store.aggregate(AnalyticsDimension.DAY, day, day, -1, ALL_STATUSES);
+
+        assertThat(oneDay.lines()).hasSize(1);
+        assertThat(oneDay.key(0)).isEqualTo(day);
+        assertThat(oneDay.amountsMinor()[0]).isEqualTo(200);
+
+        OrderLineStore.Aggregation none = store.aggregate(AnalyticsDimension.DAY, day + 10, day + 20, -1, ALL_STATUSES);
+        assertThat(none.lines()).isEmpty();
+    }
+
+    @Test
+    void filtersByCategoryAndStatus() {
+        OrderLineStore store = new OrderLineStore(100);
+        store.append(List.of(
+                line(1, 10, 1L, 7, DAY, 1, "1.00"),
+                row(2, 11, 2L, "Books", 7, DAY, 1, "2.00", OrderStatus.CANCELLED)));
+
+        int books = store.findCategoryCode("Books");
+        OrderLineStore.Aggregation completedBooks = store.aggregate(AnalyticsDimension.CATEGORY,
+                Integer.MIN_VALUE, Integer.MAX_VALUE, books, 1 << OrderStatus.COMPLETED.ordinal());
+
+        OrderLineStore.Aggregation allBooks = store.aggregate(AnalyticsDimension.CATEGORY,
+                Integer.MIN_VALUE, Integer.MAX_VALUE, books, ALL_STATUSES);
+        assertThat(completedBooks.lines()[books]).isZero();
+        assertThat(allBooks.lines()[books]).isEqualTo(1);
+        assertThat(allBooks.lines()[store.findCategoryCode("Lighting")]).isZero();
+        assertThat(store.findCategoryCode("Garden")).isEqualTo(-1);
+    }
+
+    @Test
+    void statusUpdatesArePublishedAsANewColumn() {
+        OrderLineStore store = new OrderLineStore(100);
+        store.append(List.of(line(1, 10, 1L, 7, DAY, 1, "1.00"), line(2, 11, 1L, 7, DAY, 1, "2.00")));
+        int completed = 1 << OrderStatus.COMPLETED.ordinal();
+        OrderLineStore.Aggregation before = aggregate(store, AnalyticsDimension.PRODUCT, completed);
+
+        int updated = store.updateStatuses(new int[]{11}, new byte[]{(byte) OrderStatus.CANCELLED.ordinal()});
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(before.lines()[0]).isEqualTo(2);
+        assertThat(aggregate(store, AnalyticsDimension.PRODUCT, completed).lines()[0]).isEqualTo(1);
+        assertThat(store.updateStatuses(new int[]{11}, new byte[]{(byte) OrderStatus.CANCELLED.ordinal()})).isZero();
+    }
+
+    @Test
+    void growsPastInitialCapacityAndStopsAtMaxLines() {
+        OrderLineStore store = new OrderLineStore(70_000);
+        List<OrderLineRow> rows = new ArrayList<>();
+        for (int i = 0; i < 80_000; i++) {
+            rows.add(line(i + 1, i + 1, i % 50, i % 1000, DAY, 1, "1.00"));
+        }
+
+        assertThat(store.append(rows)).isEqualTo(70_000);
+        assertThat(store.size()).isEqualTo(70_000);
+        assertThat(store.append(rows)).isZero();
+        assertThat(aggregate(store, AnalyticsDimension.PRODUCT).lines()).hasSize(50);
+        assertThat(aggregate(store, AnalyticsDimension.CUSTOMER).lines()).hasSize(1000);
+    }
+
+    private static OrderLineStore.Aggregation aggregate(OrderLineStore store, AnalyticsDimension dimension) {
+        return aggregate(store, dimension, ALL_STATUSES);
+    }
+
+    private static OrderLineStore.Aggregation aggregate(OrderLineStore store, AnalyticsDimension dimension, int mask) {
+        return store.aggregate(dimension, Integer.MIN_VALUE, Integer.MAX_VALUE, -1, mask);
+    }
+
+    private static List<String> totals(OrderLineStore.Aggregation aggregation) {
+        List<String> totals = new ArrayList<>();
+        for (int i = 0; i < aggregation.lines().length; i++) {
+            totals.add(aggregation.key(i) + "=" + aggregation.lines()[i] + "/" + aggregation.quantities()[i]
+                    + "/" + aggregation.amountsMinor()[i]);
+        }
+        return totals;
+    }
+
+    static OrderLineRow line(long itemId, long orderId, long productId, long userId, LocalDate day,
+                             int quantity, String subtotal) {
+        return row(itemId, orderId, productId, "Lighting", userId, day, quantity, subtotal, OrderStatus.COMPLETED);
+    }
+
+    static OrderLineRow row(long itemId, long orderId, long productId, String category, long userId, LocalDate day,
+                            int quantity, String subtotal, OrderStatus status) {
+        return new OrderLineRow(itemId, orderId, productId, category, userId, LocalDateTime.of(day, LocalTime.NOON),
+                quantity, new BigDecimal(subtotal), status);
+    }
+}
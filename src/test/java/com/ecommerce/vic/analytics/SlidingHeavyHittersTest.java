@@ -0,0 +1,76 @@
+package com.ecommerce.vic.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlidingHeavyHittersTest {
+    private static final long SLICE = 60_000;
+
+    private final SlidingHeavyHitters hitters = new SlidingHeavyHitters(4, SLICE, 4, 256, 8);
+
+    @Test
+    void windowCoversOnlyTheRequestedSlices() {
+        hitters.add(1L, 5, 0, 0);
+        hitters.add(1L, 3, SLICE, SLICE);
+        hitters.add(2L, 4, 2 * SLICE, 2 * SLICE);
+
+        Set<Long> candidates = new HashSet<>();
+        CountMinSketch lastTwo = hitters.collect(2, 2 * SLICE, candidates);
+
+        assertThat(lastTwo.estimate(1L)).isEqualTo(3);
+        assertThat(lastTwo.estimate(2L)).isEqualTo(4);
+        assertThat(candidates).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(hitters.collect(3, 2 * SLICE, new HashSet<>()).estimate(1L)).isEqualTo(8);
+    }
+
+    @Test
+    void slicesRollOutOfTheWindowAsTimeMovesOn() {
+        hitters.add(1L, 5, 0, 0);
+
+        long later = 4 * SLICE;
+        Set<Long> candidates = new HashSet<>();
+        CountMinSketch window = hitters.collect(4, later, candidates);
+
+        assertThat(window.estimate(1L)).isZero();
+        assertThat(candidates).isEmpty();
+    }
+
+    @Test
+    void recycledSliceStartsEmpty() {
+        hitters.add(1L, 5, 0, 0);
+
+        // Slice 4 maps to the same ring slot as slice 0
+        hitters.add(2L, 2, 4 * SLICE, 4 * SLICE);
+
+        Set<Long> candidates = new HashSet<>();
+        CountMinSketch window = hitters.collect(4, 4 * SLICE, candidates);
+        assertThat(window.estimate(1L)).isZero();
+        assertThat(window.estimate(2L)).isEqualTo(2);
+        assertThat(candidates).containsExactly(2L);
+    }
+
+    @Test
+    void eventsOlderThanTheRingAreDropped() {
+        long now = 10 * SLICE;
+        hitters.add(1L, 5, now - 4 * SLICE, now);
+        hitters.add(1L, 1, now - SLICE, now);
+
+        assertThat(hitters.collect(4, now, new HashSet<>()).estimate(1L)).isEqualTo(1);
+    }
+
+    @Test
+    void lateEventForARecycledSlotIsDropped() {
+        hitters.add(2L, 2, 4 * SLICE, 4 * SLICE);
+
+        // Arrives for slice 0 after its slot already holds slice 4
+        hitters.add(1L, 5, 0, 3 * SLICE);
+
+        CountMinSketch window = hitters.collect(4, 4 * SLICE, new HashSet<>());
+        assertThat(window.estimate(1L)).isZero();
+        assertThat(window.estimate(2L)).isEqualTo(2);
+    }
+}
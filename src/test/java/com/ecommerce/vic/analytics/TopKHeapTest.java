@@ -0,0 +1,76 @@
+package com.ecommerce.vic.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TopKHeapTest {
+    @Test
+    void keepsTheLargestCountsWhateverTheArrivalOrder() {
+        List<Long> keys = new ArrayList<>();
+        for (long key = 1; key <= 1_000; key++) {
+            keys.add(key);
+        }
+        Collections.shuffle(keys, new Random(3));
+        TopKHeap heap = new TopKHeap(10);
+
+        // Each key's count is the key itself, so the top ten are 991..1000
+        for (long key : keys) {
+            heap.offer(key, key);
+        }
+
+        assertThat(heap.size()).isEqualTo(10);
+        assertThat(heap.keys()).containsExactlyInAnyOrder(991L, 992L, 993L, 994L, 995L, 996L, 997L, 998L, 999L, 1000L);
+    }
+
+    @Test
+    void growingCountKeepsAKeyThatWouldOtherwiseBeEvicted() {
+        TopKHeap heap = new TopKHeap(2);
+        heap.offer(1L, 5);
+        heap.offer(2L, 6);
+        heap.offer(1L, 10);
+
+        heap.offer(3L, 7);
+
+        assertThat(heap.keys()).containsExactlyInAnyOrder(1L, 3L);
+    }
+
+    @Test
+    void lowerCountForAKnownKeyIsIgnored() {
+        TopKHeap heap = new TopKHeap(2);
+        heap.offer(1L, 10);
+        heap.offer(2L, 6);
+        heap.offer(1L, 1);
+
+        heap.offer(3L, 7);
+
+        assertThat(heap.keys()).containsExactlyInAnyOrder(1L, 3L);
+    }
+
+    @Test
+    void countNotAboveTheMinimumDoesNotEvict() {
+        TopKHeap heap = new TopKHeap(2);
+        heap.offer(1L, 5);
+        heap.offer(2L, 6);
+
+        heap.offer(3L, 5);
+
+        assertThat(heap.keys()).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void clearEmptiesTheHeap() {
+        TopKHeap heap = new TopKHeap(2);
+        heap.offer(1L, 5);
+        heap.clear();
+
+        heap.offer(2L, 1);
+
+        assertThat(heap.keys()).containsExactly(2L);
+    }
+}
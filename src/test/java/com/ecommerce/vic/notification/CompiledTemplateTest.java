@@ -0,0 +1,116 @@
+package com.ecommerce.vic.notification;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompiledTemplateTest {
+
+    @Test
+    void rendersLiteralsAndVariables() {
+        assertThat(render("Hi {{ name }}, total {{total}} for {{count}} items.", false,
+                Map.of("name", "Ana", "total", new BigDecimal("1E+2"), "count", 3)))
+                .isEqualTo("Hi Ana, total 100 for 3 items.");
+    }
+
+    @Test
+    void missingValuesRenderAsEmpty() {
+        assertThat(render("[{{missing}}]", true, Map.of())).isEqualTo("[]");
+    }
+
+    @Test
+    void escapesVariablesInHtmlTemplates() {
+        assertThat(render("<p>{{name}}</p>", true, Map.of("name", "<b>\"Tom\" & 'Jerry'</b>")))
+                .isEqualTo("<p>&lt;b&gt;&quot;Tom&quot; &amp; &#39;Jerry&#39;&lt;/b&gt;</p>");
+    }
+
+    @Test
+    void leavesTextTemplatesUnescaped() {
+        assertThat(render("{{name}}", false, Map.of("name", "a < b & c"))).isEqualTo("a < b & c");
+    }
+
+    @Test
+    void tripleBracesAreNeverEscaped() {
+        assertThat(render("<div>{{{ body }}}</div>", true, Map.of("body", "<em>hi</em>")))
+                .isEqualTo("<div><em>hi</em></div>");
+    }
+
+    @Test
+    void repeatsSectionsPerListElement() {
+        Map<String, Object> model = Map.of(
+                "currency", "EUR",
+                "items", List.of(Map.of("name", "Pen", "qty", 2), Map.of("name", "Ink", "qty", 1)));
+
+        assertThat(render("{{#items}}{{qty}}x {{name}} ({{currency}});{{/items}}", false, model))
+                .isEqualTo("2x Pen (EUR);1x Ink (EUR);");
+    }
+
+    @Test
+    void rendersSectionsOnceForMapsAndTrue() {
+        Map<String, Object> model = Map.of("address", Map.of("city", "Oslo"), "vip", true, "gift", false);
+
+        assertThat(render("{{#address}}{{city}}{{/address}}|{{#vip}}VIP{{/vip}}|{{#gift}}gift{{/gift}}", false, model))
+                .isEqualTo("Oslo|VIP|");
+    }
+
+    @Test
+    void skipsSectionsForMissingOrEmptyValues() {
+        assertThat(render("a{{#items}}x{{/items}}b{{#none}}y{{/none}}c", false, Map.of("items", List.of())))
+                .isEqualTo("abc");
+    }
+
+    @Test
+    void nestedSectionsSeeOuterValues() {
+        Map<String, Object> model = Map.of("orders", List.of(
+                Map.of("id", 1, "lines", List.of(Map.of("sku", "A"), Map.of("sku", "B")))));
+
+        assertThat(render("{{#orders}}{{#lines}}{{id}}-{{sku}} {{/lines}}{{/orders}}", false, model))
+                .isEqualTo("1-A 1-B ");
+    }
+
+    @Test
+    void rejectsUnclosedTag() {
+        assertThatThrownBy(() -> CompiledTemplate.compile("Hello {{name", false))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unclosed tag at offset 6");
+    }
+
+    @Test
+    void rejectsUnclosedRawTag() {
+        assertThatThrownBy(() -> CompiledTemplate.compile("{{{body}}", true))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unclosed tag at offset 0");
+    }
+
+    @Test
+    void rejectsUnclosedSection() {
+        assertThatThrownBy(() -> CompiledTemplate.compile("{{#items}}{{name}}", false))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unclosed section {{#items}}");
+    }
+
+    @Test
+    void rejectsMismatchedClosingTag() {
+        assertThatThrownBy(() -> CompiledTemplate.compile("{{#a}}{{#b}}{{/a}}{{/b}}", false))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Unexpected closing tag {{/a}}");
+    }
+
+    @Test
+    void rejectsEmptyTag() {
+        assertThatThrownBy(() -> CompiledTemplate.compile("x{{ }}", false))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Empty tag at offset 1");
+    }
+
+    private static String render(String source, boolean html, Map<String, ?> model) {
+        StringBuilder out = new StringBuilder();
+        CompiledTemplate.compile(source, html).renderTo(out, model);
+        return out.toString();
+    }
+}
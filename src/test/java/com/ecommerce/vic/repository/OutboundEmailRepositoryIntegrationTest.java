@@ -0,0 +1,119 @@
+package com.ecommerce.vic.repository;
+
+import com.ecommerce.vic.model.OutboundEmail;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Needs PostgreSQL for FOR UPDATE SKIP LOCKED; point SPRING_DATASOURCE_URL (and credentials) at a scratch
+// database and run with -Dtest=OutboundEmailRepositoryIntegrationTest
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboundEmailRepositoryIntegrationTest {
+    // Older than anything real, so these rows are first in claim order
+    private static final LocalDateTime DUE = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    @Autowired
+    private OutboundEmailRepository repository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private ExecutorService workers;
+    private List<Long> ids;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        workers = Executors.newFixedThreadPool(2);
+        ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(repository.save(OutboundEmail.builder()
+                    .recipient("outbox-" + i + "@example.com")
+                    .subject("Order confirmed")
+                    .body("Thanks")
+                    .status(OutboundEmail.Status.PENDING)
+                    .nextAttemptAt(DUE)
+                    .createdAt(DUE)
+                    .build()).getId());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        workers.shutdownNow();
+        repository.deleteAllById(ids);
+    }
+
+    @Test
+    void concurrentClaimsSkipRowsLockedByAnotherWorker() throws Exception {
+        CountDownLatch claimed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<List<Long>> first = workers.submit(() -> transactionTemplate.execute(status -> {
+            List<Long> batch = ours(repository.lockDue(LocalDateTime.now(), 2));
+            claimed.countDown();
+            await(release);
+            return batch;
+        }));
+        assertThat(claimed.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // Would block on the first worker's row locks without SKIP LOCKED
+        List<Long> second = workers.submit(() -> transactionTemplate.execute(status ->
+                ours(repository.lockDue(LocalDateTime.now(), 10)))).get(5, TimeUnit.SECONDS);
+        release.countDown();
+
+        List<Long> firstBatch = first.get(5, TimeUnit.SECONDS);
+        assertThat(firstBatch).hasSize(2);
+        assertThat(second).hasSize(1).doesNotContainAnyElementsOf(firstBatch);
+    }
+
+    @Test
+    void leasedRowsAreNotClaimedAgainUntilTheLeaseRunsOut() {
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (OutboundEmail email : repository.lockDue(now, 10)) {
+                if (ids.contains(email.getId())) {
+                    email.setAttempts(email.getAttempts() + 1);
+                    email.setNextAttemptAt(now.plusMinutes(5));
+                }
+            }
+        });
+
+        List<Long> duringLease = transactionTemplate.execute(status -> ours(repository.lockDue(now, 10)));
+        List<Long> afterLease = transactionTemplate.execute(status -> ours(repository.lockDue(now.plusMinutes(6), 10)));
+        assertThat(duringLease).isEmpty();
+        assertThat(afterLease).containsExactlyInAnyOrderElementsOf(ids);
+        assertThat(repository.findAllById(ids)).allSatisfy(email -> assertThat(email.getAttempts()).isEqualTo(1));
+    }
+
+    private List<Long> ours(List<OutboundEmail> claimed) {
+        return claimed.stream().map(OutboundEmail::getId).filter(ids::contains).toList();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
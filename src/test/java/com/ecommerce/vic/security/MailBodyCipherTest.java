@@ -0,0 +1,58 @@
+package com.ecommerce.vic.security;
+
+import com.ecommerce.vic.config.JwtConfig;
+import com.ecommerce.vic.config.MailOutboxConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MailBodyCipherTest {
+    private static final String BODY = "Your verification code is 482913";
+
+    @Test
+    void storedBodyDoesNotContainThePlaintext() {
+        MailBodyCipher cipher = cipher(null);
+
+        String stored = cipher.encrypt(BODY);
+
+        assertThat(stored).doesNotContain("482913");
+        assertThat(cipher.encrypt(BODY)).isNotEqualTo(stored);
+        assertThat(cipher.decrypt(stored)).isEqualTo(BODY);
+    }
+
+    @Test
+    void configuredKeyTakesPrecedenceOverTheJwtSecret() {
+        String key = Base64.getEncoder().encodeToString(new byte[32]);
+        String stored = cipher(key).encrypt(BODY);
+
+        assertThat(cipher(key).decrypt(stored)).isEqualTo(BODY);
+        assertThatThrownBy(() -> cipher(null).decrypt(stored)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void tamperedBodyIsRejected() {
+        MailBodyCipher cipher = cipher(null);
+        String stored = cipher.encrypt(BODY);
+        char last = stored.charAt(stored.length() - 3);
+        String tampered = stored.substring(0, stored.length() - 3) + (last == 'A' ? 'B' : 'A')
+                + stored.substring(stored.length() - 2);
+
+        assertThatThrownBy(() -> cipher.decrypt(tampered)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void bodiesQueuedBeforeEncryptionAreSentAsWritten() {
+        assertThat(cipher(null).decrypt("<p>Thanks</p>")).isEqualTo("<p>Thanks</p>");
+    }
+
+    private static MailBodyCipher cipher(String encryptionKey) {
+        MailOutboxConfig config = new MailOutboxConfig();
+        config.setEncryptionKey(encryptionKey);
+        JwtConfig jwtConfig = new JwtConfig();
+        jwtConfig.setSecret("dGVzdC1zZWNyZXQtdGVzdC1zZWNyZXQtdGVzdC1zZWNyZXQ=");
+        return new MailBodyCipher(config, jwtConfig);
+    }
+}
@@ -0,0 +1,110 @@
+package com.ecommerce.vic.security;
+
+import com.ecommerce.vic.config.JwtConfig;
+import com.ecommerce.vic.constants.UserRole;
+import com.ecommerce.vic.model.RevokedToken;
+import com.ecommerce.vic.model.User;
+import com.ecommerce.vic.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationListTest {
+    private static final Long USER_ID = 42L;
+
+    private RevokedTokenRepository repository;
+    private JwtService jwtService;
+    private TokenRevocationList revocationList;
+
+    @BeforeEach
+    void setUp() {
+        JwtConfig config = new JwtConfig();
+        config.setSecret(Base64.getEncoder().encodeToString(new byte[32]));
+        config.setExpiration(900_000);
+        jwtService = new JwtService(config, new SimpleMeterRegistry());
+        repository = mock(RevokedTokenRepository.class);
+        when(repository.save(any(RevokedToken.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        revocationList = new TokenRevocationList(repository, jwtService);
+    }
+
+    @Test
+    void tokenIssuedEarlierInTheSameSecondIsRevoked() {
+        long cutoff = revokeAll();
+        long startOfSecond = cutoff - cutoff % 1000;
+
+        assertThat(revocationList.isRevoked(token(startOfSecond))).isTrue();
+        assertThat(revocationList.isRevoked(token(cutoff))).isTrue();
+        assertThat(revocationList.isRevoked(token(cutoff + 1))).isFalse();
+    }
+
+    @Test
+    void issuedTokensCarryMillisecondIssuedAt() throws InterruptedException {
+        long started = System.currentTimeMillis();
+        String before = jwtService.generateToken(user());
+        Thread.sleep(2);
+        revokeAll();
+        Thread.sleep(2);
+        String after = jwtService.generateToken(user());
+
+        String payload = new String(Base64.getUrlDecoder().decode(before.split("\\.")[1]));
+        long issuedAt = jwtService.verify(before).issuedAtMillis();
+        assertThat(payload).contains("\"iat_ms\":" + issuedAt);
+        assertThat(issuedAt).isGreaterThanOrEqualTo(started);
+        assertThat(revocationList.isRevoked(jwtService.verify(before))).isTrue();
+        assertThat(revocationList.isRevoked(jwtService.verify(after))).isFalse();
+    }
+
+    @Test
+    void legacyTokenWithSecondPrecisionIsRevokedWithinTheSameSecond() {
+        long cutoff = revokeAll();
+
+        // Without iat_ms only the start of the issuing second is known
+        assertThat(revocationList.isRevoked(token(cutoff - cutoff % 1000))).isTrue();
+        assertThat(revocationList.isRevoked(token(cutoff - cutoff % 1000 + 1000))).isFalse();
+    }
+
+    @Test
+    void otherUsersAndSingleRevocationsAreIndependent() {
+        revokeAll();
+        UUID tokenId = UUID.randomUUID();
+        revocationList.revokeToken(7L, tokenId);
+
+        long now = System.currentTimeMillis() + 1;
+        assertThat(revocationList.isRevoked(new JwtService.VerifiedToken(
+                "other@example.com", 7L, UserRole.CUSTOMER, UUID.randomUUID(), 0L, now + 60_000))).isFalse();
+        assertThat(revocationList.isRevoked(new JwtService.VerifiedToken(
+                "other@example.com", 7L, UserRole.CUSTOMER, tokenId, now, now + 60_000))).isTrue();
+    }
+
+    private long revokeAll() {
+        revocationList.revokeAllForUser(USER_ID);
+        ArgumentCaptor<RevokedToken> saved = ArgumentCaptor.forClass(RevokedToken.class);
+        verify(repository).save(saved.capture());
+        return saved.getValue().getRevokedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private JwtService.VerifiedToken token(long issuedAtMillis) {
+        return new JwtService.VerifiedToken(
+                "user@example.com", USER_ID, UserRole.CUSTOMER, UUID.randomUUID(), issuedAtMillis,
+                issuedAtMillis + 900_000);
+    }
+
+    private static User user() {
+        User user = new User();
+        user.setUserId(USER_ID);
+        user.setEmail("user@example.com");
+        user.setRole(UserRole.CUSTOMER);
+        return user;
+    }
+}
@@ -0,0 +1,177 @@
+package com.ecommerce.vic.service;
+
+import com.ecommerce.vic.model.Cart;
+import com.ecommerce.vic.model.CartItem;
+import com.ecommerce.vic.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CartStateTest {
+
+    @Test
+    void newLinesMakeTheCartDirtyAndAppearInTheSnapshot() {
+        CartState cart = CartState.empty(7L, 70L);
+        assertThat(cart.isDirty()).isFalse();
+
+        cart.addLine(1L, product(100L, "9.99", 3), 2);
+
+        assertThat(cart.isDirty()).isTrue();
+        CartState.Snapshot snapshot = cart.snapshot();
+        assertThat(snapshot.cartId()).isEqualTo(70L);
+        assertThat(snapshot.changedLines()).extracting(CartState.Line::getItemId).containsExactly(1L);
+        assertThat(snapshot.changedLines().get(0).getSubtotal()).isEqualByComparingTo("19.98");
+        assertThat(snapshot.changedLines().get(0).getPriceVersion()).isEqualTo(3);
+    }
+
+    @Test
+    void snapshotAfterFlushContainsOnlyLinesChangedSince() {
+        CartState cart = CartState.empty(7L, 70L);
+        cart.addLine(1L, product(100L, "5.00", 0), 1);
+        CartState.Line second = cart.addLine(2L, product(200L, "2.50", 0), 1);
+        assertThat(cart.markFlushed(cart.snapshot())).isTrue();
+        assertThat(cart.isDirty()).isFalse();
+
+        cart.updateQuantity(second, 4);
+
+        CartState.Snapshot snapshot = cart.snapshot();
+        assertThat(snapshot.changedLines()).extracting(CartState.Line::getItemId).containsExactly(2L);
+        assertThat(snapshot.changedLines().get(0).getQuantity()).isEqualTo(4);
+        assertThat(snapshot.changedLines().get(0).getSubtotal()).isEqualByComparingTo("10.00");
+    }
+
+    @Test
+    void snapshotIsACopyUnaffectedByLaterChanges() {
+        CartState cart = CartState.empty(7L, 70L);
+        CartState.Line line = cart.addLine(1L, product(100L, "5.00", 0), 1);
+        CartState.Snapshot snapshot = cart.snapshot();
+
+        cart.updateQuantity(line, 9);
+
+        assertThat(snapshot.changedLines().get(0).getQuantity()).isEqualTo(1);
+    }
+
+    @Test
+    void changesMadeWhileAFlushIsInFlightKeepTheCartDirty() {
+        CartState cart = CartState.empty(7L, 70L);
+        CartState.Line line = cart.addLine(1L, product(100L, "5.00", 0), 1);
+        CartState.Snapshot inFlight = cart.snapshot();
+
+        cart.updateQuantity(line, 2);
+
+        assertThat(cart.markFlushed(inFlight)).isFalse();
+        assertThat(cart.isDirty()).isTrue();
+        assertThat(cart.snapshot().changedLines()).extracting(CartState.Line::getQuantity).containsExactly(2);
+    }
+
+    @Test
+    void markFlushedNeverMovesBackwards() {
+        CartState cart = CartState.empty(7L, 70L);
+        CartState.Line line = cart.addLine(1L, product(100L, "5.00", 0), 1);
+        CartState.Snapshot older = cart.snapshot();
+        cart.updateQuantity(line, 2);
+        CartState.Snapshot newer = cart.snapshot();
+
+        assertThat(cart.markFlushed(newer)).isTrue();
+        cart.markFlushed(older);
+
+        assertThat(cart.isDirty()).isFalse();
+        assertThat(cart.getFlushedVersion()).isEqualTo(newer.version());
+    }
+
+    @Test
+    void removalsAreWrittenUntilAFlushCoversThem() {
+        CartState cart = CartState.of(7L, storedCart(item(1L, 100L, 2), item(2L, 200L, 1)));
+
+        assertThat(cart.removeLine(1L)).isTrue();
+        assertThat(cart.removeLine(99L)).isFalse();
+        CartState.Snapshot snapshot = cart.snapshot();
+        assertThat(snapshot.removedItemIds()).containsExactly(1L);
+        assertThat(snapshot.changedLines()).isEmpty();
+
+        cart.markFlushed(snapshot);
+        assertThat(cart.getRemovedItemIds()).isEmpty();
+        assertThat(cart.snapshot().removedItemIds()).isEmpty();
+    }
+
+    @Test
+    void clearRemovesEveryLine() {
+        CartState cart = CartState.of(7L, storedCart(item(1L, 100L, 2), item(2L, 200L, 1)));
+
+        cart.clear();
+
+        assertThat(cart.getLines()).isEmpty();
+        assertThat(cart.isDirty()).isTrue();
+        assertThat(cart.snapshot().removedItemIds()).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void loadedCartIsCleanAndLegacyLinesAreStale() {
+        CartItem legacy = item(1L, 100L, 2);
+        legacy.setPriceVersion(null);
+        CartItem current = item(2L, 200L, 1);
+        current.setPriceVersion(4L);
+
+        CartState cart = CartState.of(7L, storedCart(legacy, current));
+
+        assertThat(cart.isDirty()).isFalse();
+        assertThat(cart.getCartId()).isEqualTo(70L);
+        assertThat(cart.findLine(1L).getPriceVersion()).isEqualTo(-1);
+        assertThat(cart.findByProduct(200L).getPriceVersion()).isEqualTo(4);
+    }
+
+    @Test
+    void repriceUpdatesSubtotalAndMarksTheLineChanged() {
+        CartState cart = CartState.of(7L, storedCart(item(1L, 100L, 3)));
+        CartState.Line line = cart.findLine(1L);
+
+        cart.reprice(line, new BigDecimal("4.00"), 5);
+
+        assertThat(line.getSubtotal()).isEqualByComparingTo("12.00");
+        assertThat(line.getPriceVersion()).isEqualTo(5);
+        assertThat(cart.snapshot().changedLines()).extracting(CartState.Line::getItemId).containsExactly(1L);
+    }
+
+    @Test
+    void markAllModifiedRewritesEveryLine() {
+        CartState cart = CartState.of(7L, storedCart(item(1L, 100L, 1), item(2L, 200L, 1)));
+        cart.updateQuantity(cart.findLine(2L), 5);
+        cart.markFlushed(cart.snapshot());
+
+        cart.markAllModified();
+
+        assertThat(cart.isDirty()).isTrue();
+        assertThat(cart.snapshot().changedLines()).extracting(CartState.Line::getItemId).containsExactly(1L, 2L);
+    }
+
+    static Product product(Long id, String price, long priceVersion) {
+        return Product.builder()
+                .productId(id)
+                .name("Product " + id)
+                .price(new BigDecimal(price))
+                .priceVersion(priceVersion)
+                .build();
+    }
+
+    static CartItem item(Long id, Long productId, int quantity) {
+        BigDecimal price = new BigDecimal("3.00");
+        return CartItem.builder()
+                .id(id)
+                .product(product(productId, "3.00", 0))
+                .quantity(quantity)
+                .unitPrice(price)
+                .subtotal(price.multiply(BigDecimal.valueOf(quantity)))
+                .priceVersion(0L)
+                .build();
+    }
+
+    static Cart storedCart(CartItem... items) {
+        Cart cart = Cart.builder().id(70L).items(List.of(items)).build();
+        cart.setSubtotal(cart.getItems().stream().map(CartItem::getSubtotal).reduce(BigDecimal.ZERO, BigDecimal::add));
+        cart.setTotalItems(cart.getItems().stream().mapToInt(CartItem::getQuantity).sum());
+        return cart;
+    }
+}
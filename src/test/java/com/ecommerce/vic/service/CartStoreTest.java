@@ -0,0 +1,212 @@
+package com.ecommerce.vic.service;
+
+import com.ecommerce.vic.event.UserAccountChangedEvent;
+import com.ecommerce.vic.repository.CartRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+import static com.ecommerce.vic.service.CartStateTest.item;
+import static com.ecommerce.vic.service.CartStateTest.product;
+import static com.ecommerce.vic.service.CartStateTest.storedCart;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CartStoreTest {
+    private static final Long USER_ID = 7L;
+
+    private CartRepository cartRepository;
+    private JdbcTemplate jdbcTemplate;
+    private CartStore store;
+
+    @BeforeEach
+    void setUp() {
+        cartRepository = mock(CartRepository.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        AtomicLong sequence = new AtomicLong(1000);
+        when(jdbcTemplate.queryForObject(anyString(), eq(String.class), any())).thenReturn("seq");
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(), any())).thenAnswer(invocation ->
+                LongStream.range(0, (Integer) invocation.getArgument(3))
+                        .mapToObj(i -> sequence.incrementAndGet())
+                        .toList());
+        when(cartRepository.findWithItemsByUserId(USER_ID)).thenReturn(Optional.empty());
+        store = new CartStore(cartRepository, jdbcTemplate, mock(PlatformTransactionManager.class),
+                new SimpleMeterRegistry(), 100, Duration.ofMinutes(30), 2000, 500);
+    }
+
+    @Test
+    void readsDoNotDirtyTheCart() {
+        store.read(USER_ID, cart -> cart.getLines().size());
+
+        store.flush();
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void updatesAreCoalescedIntoOneWriteAndNotRepeated() {
+        Long first = addLine(100L, 1);
+        Long second = addLine(200L, 2);
+
+        store.flush();
+        store.flush();
+
+        assertThat(batches("INSERT INTO carts")).hasSize(1);
+        assertThat(writtenItemIds()).containsExactlyInAnyOrder(first, second);
+    }
+
+    @Test
+    void laterFlushesWriteOnlyTheChangedLines() {
+        Long first = addLine(100L, 1);
+        addLine(200L, 1);
+        store.flush();
+
+        store.update(USER_ID, cart -> {
+            cart.updateQuantity(cart.findLine(first), 3);
+            return null;
+        });
+        store.flush();
+
+        List<List<Object[]>> itemBatches = batches("INSERT INTO cart_items");
+        assertThat(itemBatches).hasSize(2);
+        assertThat(itemBatches.get(1)).extracting(row -> row[0]).containsExactly(first);
+        assertThat(itemBatches.get(1).get(0)[3]).isEqualTo(3);
+    }
+
+    @Test
+    void storedCartIsLoadedOnceAndServedFromMemory() {
+        when(cartRepository.findWithItemsByUserId(USER_ID)).thenReturn(Optional.of(storedCart(item(1L, 100L, 2))));
+
+        int first = store.read(USER_ID, cart -> cart.getLines().size());
+        int second = store.read(USER_ID, cart -> cart.getLines().size());
+
+        assertThat(first).isEqualTo(1);
+        assertThat(second).isEqualTo(1);
+        verify(cartRepository, times(1)).findWithItemsByUserId(USER_ID);
+    }
+
+    @Test
+    void failedFlushKeepsTheCartDirtyForTheNextAttempt() {
+        Long itemId = addLine(100L, 1);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new QueryTimeoutException("timeout"));
+
+        store.flush();
+
+        assertThat(store.isResident(USER_ID)).isTrue();
+        doReturn(new int[0]).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+        store.flush();
+        assertThat(writtenItemIds()).contains(itemId);
+    }
+
+    @Test
+    void unflushableCartIsDiscardedAndReloaded() {
+        addLine(100L, 1);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataIntegrityViolationException("product gone"));
+
+        store.flush();
+
+        assertThat(store.isResident(USER_ID)).isFalse();
+        when(cartRepository.findWithItemsByUserId(USER_ID)).thenReturn(Optional.of(storedCart(item(1L, 300L, 1))));
+        Long productId = store.read(USER_ID, cart -> cart.getLines().get(0).getProductId());
+        assertThat(productId).isEqualTo(300L);
+    }
+
+    @Test
+    void deletedUserIsEvictedWithPendingChanges() {
+        addLine(100L, 1);
+
+        store.onUserAccountChanged(new UserAccountChangedEvent(USER_ID, "user@example.com",
+                UserAccountChangedEvent.Change.DELETED));
+        store.flush();
+
+        assertThat(store.isResident(USER_ID)).isFalse();
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void otherAccountChangesKeepTheCart() {
+        addLine(100L, 1);
+
+        store.onUserAccountChanged(new UserAccountChangedEvent(USER_ID, "user@example.com",
+                UserAccountChangedEvent.Change.PROFILE));
+
+        assertThat(store.isResident(USER_ID)).isTrue();
+    }
+
+    @Test
+    void sweptCleanCartIsDroppedAndReloaded() {
+        when(cartRepository.findWithItemsByUserId(USER_ID)).thenReturn(Optional.of(storedCart(item(1L, 100L, 2))));
+        store.read(USER_ID, cart -> null);
+
+        store.evictDeleted(USER_ID);
+
+        assertThat(store.isResident(USER_ID)).isFalse();
+        store.read(USER_ID, cart -> null);
+        verify(cartRepository, times(2)).findWithItemsByUserId(USER_ID);
+    }
+
+    @Test
+    void sweptDirtyCartIsRewrittenInFull() {
+        Long first = addLine(100L, 1);
+        Long second = addLine(200L, 1);
+        store.flush();
+        store.update(USER_ID, cart -> {
+            cart.updateQuantity(cart.findLine(second), 4);
+            return null;
+        });
+
+        store.evictDeleted(USER_ID);
+        store.flush();
+
+        assertThat(store.isResident(USER_ID)).isTrue();
+        List<List<Object[]>> itemBatches = batches("INSERT INTO cart_items");
+        assertThat(itemBatches.get(itemBatches.size() - 1)).extracting(row -> row[0])
+                .containsExactlyInAnyOrder(first, second);
+    }
+
+    private Long addLine(Long productId, int quantity) {
+        return store.update(USER_ID, cart -> cart.addLine(store.nextItemId(), product(productId, "2.00", 0), quantity)
+                .getItemId());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<Object[]>> batches(String statementPrefix) {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, atLeastOnce()).batchUpdate(sql.capture(), rows.capture());
+        List<List<Object[]>> batches = new ArrayList<>();
+        for (int i = 0; i < sql.getAllValues().size(); i++) {
+            if (sql.getAllValues().get(i).startsWith(statementPrefix)) {
+                batches.add(rows.getAllValues().get(i));
+            }
+        }
+        return batches;
+    }
+
+    private List<Object> writtenItemIds() {
+        return batches("INSERT INTO cart_items").stream().flatMap(List::stream).map(row -> row[0]).toList();
+    }
+}
@@ -0,0 +1,283 @@
+package com.ecommerce.vic.service;
+
+import com.ecommerce.vic.config.JwtConfig;
+import com.ecommerce.vic.config.MailOutboxConfig;
+import com.ecommerce.vic.event.OutboundEmailQueuedEvent;
+import com.ecommerce.vic.model.OutboundEmail;
+import com.ecommerce.vic.repository.OutboundEmailRepository;
+import com.ecommerce.vic.security.MailBodyCipher;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Sends through a real JavaMailSender to an in-process GreenMail SMTP server. The outbox repository is mocked,
+// so each test controls what a claim returns and checks how the batch is completed.
+class EmailDispatcherTest {
+    @RegisterExtension
+    static final GreenMailExtension smtp = new GreenMailExtension(ServerSetupTest.SMTP);
+    private static final MailBodyCipher CIPHER = cipher("dGVzdC1zZWNyZXQtdGVzdC1zZWNyZXQtdGVzdC1zZWNyZXQ=");
+
+    private OutboundEmailRepository repository;
+    private MailOutboxConfig config;
+    private RejectingMailSender mailSender;
+    private final Deque<Runnable> workers = new ArrayDeque<>();
+    private SimpleMeterRegistry meterRegistry;
+    private EmailDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(OutboundEmailRepository.class);
+        config = new MailOutboxConfig();
+        config.setBatchSize(10);
+        config.setMaxAttempts(3);
+        config.setInitialBackoff(Duration.ofSeconds(30));
+        config.setMaxBackoff(Duration.ofMinutes(10));
+        config.setLease(Duration.ofMinutes(5));
+        mailSender = new RejectingMailSender();
+        mailSender.setHost("localhost");
+        mailSender.setPort(smtp.getSmtp().getPort());
+        ThreadPoolTaskExecutor mailExecutor = mock(ThreadPoolTaskExecutor.class);
+        doAnswer(invocation -> workers.add(invocation.getArgument(0))).when(mailExecutor).execute(any(Runnable.class));
+        meterRegistry = new SimpleMeterRegistry();
+        dispatcher = new EmailDispatcher(repository, mailSender, CIPHER, config, mailExecutor,
+                mock(PlatformTransactionManager.class), meterRegistry, "shop@example.com");
+    }
+
+    @Test
+    void claimLeasesTheBatchBeforeSending() {
+        OutboundEmail email = email(1L, "ana@example.com", 0);
+        due(email);
+        LocalDateTime before = LocalDateTime.now();
+
+        dispatch();
+
+        ArgumentCaptor<LocalDateTime> now = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(repository, atLeastOnce()).lockDue(now.capture(), eq(10));
+        assertThat(now.getAllValues().get(0)).isAfterOrEqualTo(before);
+        assertThat(email.getAttempts()).isEqualTo(1);
+        // Pushed past the lease so a worker that dies mid-send leaves the row to be picked up again later
+        assertThat(email.getNextAttemptAt()).isBetween(before.plusMinutes(5), LocalDateTime.now().plusMinutes(5));
+    }
+
+    @Test
+    void sendsTheWholeBatchInOneCall() throws Exception {
+        due(email(1L, "ana@example.com", 0), email(2L, "bo@example.com", 0), email(3L, "cy@example.com", 0));
+
+        dispatch();
+
+        assertThat(mailSender.sendCalls).isEqualTo(1);
+        MimeMessage[] received = smtp.getReceivedMessages();
+        assertThat(received).hasSize(3);
+        assertThat(received).extracting(message -> message.getRecipients(Message.RecipientType.TO)[0].toString())
+                .containsExactlyInAnyOrder("ana@example.com", "bo@example.com", "cy@example.com");
+        assertThat(received[0].getFrom()[0].toString()).isEqualTo("shop@example.com");
+        assertThat(GreenMailUtil.getBody(received[0])).contains("<p>Thanks</p>");
+        verify(repository).markSent(eq(List.of(1L, 2L, 3L)), any(LocalDateTime.class));
+        verify(repository, never()).reschedule(anyLong(), any(), anyString());
+        verify(repository, never()).markFailed(anyLong(), anyString());
+        assertThat(outcome("sent")).isEqualTo(3);
+    }
+
+    @Test
+    void partialFailureReschedulesOnlyTheRejectedMessages() {
+        mailSender.rejected = Set.of("bounce@example.com");
+        due(email(1L, "ana@example.com", 0), email(2L, "bounce@example.com", 0), email(3L, "cy@example.com", 0));
+        LocalDateTime before = LocalDateTime.now();
+
+        dispatch();
+
+        assertThat(smtp.getReceivedMessages()).hasSize(2);
+        verify(repository).markSent(eq(List.of(1L, 3L)), any(LocalDateTime.class));
+        ArgumentCaptor<LocalDateTime> retryAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(repository).reschedule(eq(2L), retryAt.capture(), eq("SendFailedException: Recipient rejected"));
+        // First retry waits the initial backoff plus up to 20% jitter
+        assertThat(retryAt.getValue()).isBetween(before.plusSeconds(30), LocalDateTime.now().plusSeconds(36));
+        assertThat(outcome("sent")).isEqualTo(2);
+        assertThat(outcome("retry")).isEqualTo(1);
+    }
+
+    @Test
+    void backoffGrowsWithEachAttemptUpToTheMaximum() {
+        config.setMaxAttempts(20);
+        mailSender.rejected = Set.of("bounce@example.com", "late@example.com");
+        due(email(1L, "bounce@example.com", 2), email(2L, "late@example.com", 12));
+        LocalDateTime before = LocalDateTime.now();
+
+        dispatch();
+
+        ArgumentCaptor<LocalDateTime> thirdAttempt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(repository).reschedule(eq(1L), thirdAttempt.capture(), anyString());
+        assertThat(thirdAttempt.getValue()).isBetween(before.plusSeconds(120), LocalDateTime.now().plusSeconds(144));
+        ArgumentCaptor<LocalDateTime> capped = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(repository).reschedule(eq(2L), capped.capture(), anyString());
+        assertThat(capped.getValue()).isBetween(before.plusMinutes(10), LocalDateTime.now().plusMinutes(12));
+    }
+
+    @Test
+    void lastAttemptMarksTheEmailFailed() {
+        mailSender.rejected = Set.of("bounce@example.com");
+        due(email(1L, "bounce@example.com", 2));
+
+        dispatch();
+
+        verify(repository).markFailed(1L, "SendFailedException: Recipient rejected");
+        verify(repository, never()).reschedule(anyLong(), any(), anyString());
+        verify(repository, never()).markSent(any(), any());
+        assertThat(outcome("failed")).isEqualTo(1);
+        assertThat(outcome("retry")).isZero();
+    }
+
+    @Test
+    void unreachableServerReschedulesTheWholeBatch() {
+        mailSender.setPort(smtp.getSmtp().getPort() + 1);
+        due(email(1L, "ana@example.com", 0), email(2L, "bo@example.com", 0));
+
+        dispatch();
+
+        verify(repository).reschedule(eq(1L), any(LocalDateTime.class), anyString());
+        verify(repository).reschedule(eq(2L), any(LocalDateTime.class), anyString());
+        verify(repository, never()).markSent(any(), any());
+        assertThat(outcome("retry")).isEqualTo(2);
+    }
+
+    @Test
+    void bodyThatCannotBeDecryptedFailsOnlyThatEmail() {
+        OutboundEmail foreign = email(2L, "bo@example.com", 0);
+        foreign.setBody(cipher("b3RoZXItc2VjcmV0LW90aGVyLXNlY3JldC1vdGhlcg==").encrypt("<p>Thanks</p>"));
+        due(email(1L, "ana@example.com", 0), foreign);
+
+        dispatch();
+
+        assertThat(smtp.getReceivedMessages()).hasSize(1);
+        verify(repository).markSent(eq(List.of(1L)), any(LocalDateTime.class));
+        verify(repository).reschedule(eq(2L), any(LocalDateTime.class),
+                eq("IllegalStateException: Could not decrypt outbound email body"));
+    }
+
+    @Test
+    void cleanupPurgesFailedEmailsAfterTheirOwnRetention() {
+        config.setSentRetention(Duration.ofDays(7));
+        config.setFailedRetention(Duration.ofDays(30));
+        LocalDateTime before = LocalDateTime.now();
+
+        dispatcher.deleteSettled();
+
+        ArgumentCaptor<LocalDateTime> sentCutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(repository).deleteSentBefore(sentCutoff.capture());
+        assertThat(sentCutoff.getValue()).isBetween(before.minusDays(7), LocalDateTime.now().minusDays(7));
+        ArgumentCaptor<LocalDateTime> failedCutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(repository).deleteFailedBefore(failedCutoff.capture());
+        assertThat(failedCutoff.getValue()).isBetween(before.minusDays(30), LocalDateTime.now().minusDays(30));
+    }
+
+    private void due(OutboundEmail... batch) {
+        when(repository.lockDue(any(LocalDateTime.class), anyInt()))
+                .thenReturn(new ArrayList<>(List.of(batch)))
+                .thenReturn(List.of());
+    }
+
+    private void dispatch() {
+        dispatcher.onEmailQueued(new OutboundEmailQueuedEvent(1L));
+        Runnable worker;
+        while ((worker = workers.poll()) != null) {
+            worker.run();
+        }
+    }
+
+    private double outcome(String outcome) {
+        return meterRegistry.get("mail.outbox.delivered").tag("outcome", outcome).counter().count();
+    }
+
+    private static OutboundEmail email(Long id, String recipient, int attempts) {
+        return OutboundEmail.builder()
+                .id(id)
+                .recipient(recipient)
+                .subject("Order confirmed")
+                .body(CIPHER.encrypt("<p>Thanks</p>"))
+                .html(true)
+                .status(OutboundEmail.Status.PENDING)
+                .attempts(attempts)
+                .nextAttemptAt(LocalDateTime.now().minusMinutes(1))
+                .createdAt(LocalDateTime.now().minusMinutes(1))
+                .build();
+    }
+
+    private static MailBodyCipher cipher(String jwtSecret) {
+        JwtConfig jwtConfig = new JwtConfig();
+        jwtConfig.setSecret(jwtSecret);
+        return new MailBodyCipher(new MailOutboxConfig(), jwtConfig);
+    }
+
+    // Delivers what the server would accept and reports the rest the way JavaMailSenderImpl does for
+    // recipients refused mid-batch: one MailSendException keyed by the failed messages
+    private static final class RejectingMailSender extends JavaMailSenderImpl {
+        private Set<String> rejected = Set.of();
+        private int sendCalls;
+
+        @Override
+        protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) throws MailException {
+            sendCalls++;
+            List<MimeMessage> accepted = new ArrayList<>();
+            Map<Object, Exception> failed = new HashMap<>();
+            for (MimeMessage message : mimeMessages) {
+                if (rejected.contains(recipient(message))) {
+                    failed.put(message, new SendFailedException("Recipient rejected"));
+                } else {
+                    accepted.add(message);
+                }
+            }
+            if (!accepted.isEmpty()) {
+                MimeMessage[] toSend = accepted.toArray(MimeMessage[]::new);
+                super.doSend(toSend, toSend);
+            }
+            if (!failed.isEmpty()) {
+                throw new MailSendException(failed);
+            }
+        }
+
+        private static String recipient(MimeMessage message) {
+            try {
+                return message.getRecipients(Message.RecipientType.TO)[0].toString();
+            } catch (MessagingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
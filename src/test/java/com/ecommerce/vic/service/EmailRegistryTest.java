@@ -0,0 +1,50 @@
+package com.ecommerce.vic.service;
+
+import com.ecommerce.vic.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EmailRegistryTest {
+    private UserRepository userRepository;
+    private EmailRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        registry = new EmailRegistry(userRepository, mock(PlatformTransactionManager.class), 1000, 0.01);
+    }
+
+    @Test
+    void everythingMightExistUntilTheFilterIsBuilt() {
+        assertThat(registry.mightExist("nobody@example.com")).isTrue();
+    }
+
+    @Test
+    void existingUsersAreFoundRegardlessOfCase() {
+        when(userRepository.count()).thenReturn(2L);
+        when(userRepository.streamAllEmails()).thenReturn(Stream.of("Ana@Example.com", "bo@example.com"));
+
+        registry.initialize();
+
+        assertThat(registry.mightExist("ana@example.com")).isTrue();
+        assertThat(registry.mightExist("BO@EXAMPLE.COM")).isTrue();
+        assertThat(registry.mightExist("cy@example.com")).isFalse();
+    }
+
+    @Test
+    void registrationsAreFoundWithoutARebuild() {
+        when(userRepository.streamAllEmails()).thenReturn(Stream.of());
+        registry.initialize();
+
+        registry.register("New@example.com");
+
+        assertThat(registry.mightExist("new@example.com")).isTrue();
+    }
+}
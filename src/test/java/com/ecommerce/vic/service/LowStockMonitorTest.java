@@ -0,0 +1,100 @@
+package com.ecommerce.vic.service;
+
+import com.ecommerce.vic.dto.product.StockLevel;
+import com.ecommerce.vic.dto.report.LowStockItem;
+import com.ecommerce.vic.event.ProductDeletedEvent;
+import com.ecommerce.vic.event.StockLevelChangedEvent;
+import com.ecommerce.vic.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LowStockMonitorTest {
+    private static final Long PRODUCT_ID = 5L;
+
+    private ProductRepository productRepository;
+    private LowStockMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        monitor = new LowStockMonitor(productRepository);
+        ReflectionTestUtils.setField(monitor, "defaultReorderPoint", 10);
+    }
+
+    @Test
+    void productAtOrBelowItsReorderPointIsListed() {
+        stored(10, null);
+
+        monitor.onStockLevelChanged(event(12, 10));
+
+        assertThat(monitor.getLowStockItems()).singleElement()
+                .extracting(LowStockItem::stockQuantity, LowStockItem::reorderPoint)
+                .containsExactly(10, 10);
+    }
+
+    @Test
+    void staleEventDeliveredLastDoesNotUndoARestock() {
+        stored(2, null);
+        monitor.onStockLevelChanged(event(4, 2));
+        stored(40, null);
+        monitor.onStockLevelChanged(event(2, 40));
+
+        // The checkout that took stock to 2 committed first but its event arrives after the restock
+        monitor.onStockLevelChanged(event(4, 2));
+
+        assertThat(monitor.getLowStockItems()).isEmpty();
+    }
+
+    @Test
+    void staleEventDeliveredLastDoesNotHideLowStock() {
+        stored(3, null);
+
+        monitor.onStockLevelChanged(event(3, 30));
+
+        assertThat(monitor.getLowStockItems()).extracting(LowStockItem::stockQuantity).containsExactly(3);
+    }
+
+    @Test
+    void keepsTheFirstTimeAProductWentLow() {
+        stored(8, 20);
+        monitor.onStockLevelChanged(event(25, 8));
+        LowStockItem first = monitor.getLowStockItems().get(0);
+
+        stored(5, 20);
+        monitor.onStockLevelChanged(event(8, 5));
+
+        LowStockItem second = monitor.getLowStockItems().get(0);
+        assertThat(second.stockQuantity()).isEqualTo(5);
+        assertThat(second.since()).isEqualTo(first.since());
+    }
+
+    @Test
+    void deletedProductsAreDropped() {
+        stored(1, null);
+        monitor.onStockLevelChanged(event(2, 1));
+
+        monitor.onProductDeleted(new ProductDeletedEvent(PRODUCT_ID));
+        assertThat(monitor.getLowStockItems()).isEmpty();
+
+        // A late stock event for the deleted product finds no row and does not bring it back
+        when(productRepository.findStockLevel(PRODUCT_ID)).thenReturn(Optional.empty());
+        monitor.onStockLevelChanged(event(2, 1));
+        assertThat(monitor.getLowStockItems()).isEmpty();
+    }
+
+    private void stored(int quantity, Integer reorderPoint) {
+        when(productRepository.findStockLevel(PRODUCT_ID))
+                .thenReturn(Optional.of(new StockLevel(PRODUCT_ID, "Desk lamp", quantity, reorderPoint)));
+    }
+
+    private static StockLevelChangedEvent event(int previousQuantity, int currentQuantity) {
+        return new StockLevelChangedEvent(PRODUCT_ID, "Desk lamp", previousQuantity, currentQuantity, null);
+    }
+}
@@ -0,0 +1,101 @@
+package com.ecommerce.vic.service;
+
+import com.ecommerce.vic.constants.AnalyticsDimension;
+import com.ecommerce.vic.constants.OrderStatus;
+import com.ecommerce.vic.dto.report.OrderLineRow;
+import com.ecommerce.vic.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderAnalyticsServiceTest {
+    private static final Duration WINDOW = Duration.ofMinutes(10);
+
+    private OrderRepository orderRepository;
+    private OrderAnalyticsService service;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository = mock(OrderRepository.class);
+        service = new OrderAnalyticsService(orderRepository, 1000, 100, WINDOW);
+    }
+
+    @Test
+    void lineCommittedBehindTheWatermarkIsPickedUpOnTheNextRefresh() {
+        LocalDateTime now = LocalDateTime.now();
+        // Line 3 was inserted before line 4 but its transaction had not committed yet
+        when(orderRepository.findOrderLinesAfter(eq(0L), any()))
+                .thenReturn(List.of(line(1, now), line(2, now), line(4, now)));
+        service.refresh();
+        assertThat(matchedLines()).isEqualTo(3);
+
+        when(orderRepository.findOrderLinesByIdIn(List.of(3L))).thenReturn(List.of(line(3, now)));
+        service.refresh();
+        assertThat(matchedLines()).isEqualTo(4);
+
+        service.refresh();
+        assertThat(matchedLines()).isEqualTo(4);
+        verify(orderRepository, times(1)).findOrderLinesByIdIn(anyCollection());
+    }
+
+    @Test
+    void gapIsRetriedUntilTheLateCommitWindowPasses() {
+        LocalDateTime now = LocalDateTime.now();
+        when(orderRepository.findOrderLinesAfter(eq(0L), any()))
+                .thenReturn(List.of(line(1, now), line(3, now)));
+
+        service.refresh();
+        service.refresh();
+        service.refresh();
+
+        verify(orderRepository, times(2)).findOrderLinesByIdIn(List.of(2L));
+    }
+
+    @Test
+    void holesOlderThanTheWindowAreTreatedAsRolledBack() {
+        LocalDateTime old = LocalDateTime.now().minus(WINDOW).minusMinutes(1);
+        when(orderRepository.findOrderLinesAfter(eq(0L), any()))
+                .thenReturn(List.of(line(1, old), line(5, old)));
+
+        service.refresh();
+        service.refresh();
+
+        verify(orderRepository, never()).findOrderLinesByIdIn(anyCollection());
+        assertThat(matchedLines()).isEqualTo(2);
+    }
+
+    @Test
+    void statusSyncRereadsTheWholeLateCommitWindow() {
+        service.refresh();
+        LocalDateTime beforeSecondRefresh = LocalDateTime.now();
+        service.refresh();
+
+        ArgumentCaptor<LocalDateTime> since = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(orderRepository).findStatusesUpdatedSince(since.capture());
+        assertThat(since.getValue()).isBefore(beforeSecondRefresh.minus(WINDOW));
+    }
+
+    private long matchedLines() {
+        return service.aggregate(AnalyticsDimension.PRODUCT, null, null, null, null, 10).matchedLines();
+    }
+
+    private static OrderLineRow line(long itemId, LocalDateTime createdAt) {
+        return new OrderLineRow(itemId, itemId, 1L, "books", 1L, createdAt, 1,
+                new BigDecimal("5.00"), OrderStatus.COMPLETED);
+    }
+}
@@ -0,0 +1,113 @@
+package com.ecommerce.vic.service;
+
+import com.ecommerce.vic.config.JwtConfig;
+import com.ecommerce.vic.exception.UnauthorizedException;
+import com.ecommerce.vic.model.RefreshToken;
+import com.ecommerce.vic.repository.RefreshTokenRepository;
+import com.ecommerce.vic.security.TokenRevocationList;
+import com.ecommerce.vic.util.Hashing;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RefreshTokenServiceTest {
+    private static final Long USER_ID = 42L;
+
+    private RefreshTokenRepository repository;
+    private TokenRevocationList revocationList;
+    private RefreshTokenService service;
+    // Stored tokens by hash, standing in for the refresh_tokens table
+    private final Map<String, RefreshToken> stored = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(RefreshTokenRepository.class);
+        when(repository.save(any(RefreshToken.class))).thenAnswer(invocation -> {
+            RefreshToken token = invocation.getArgument(0);
+            token.setId((long) stored.size() + 1);
+            stored.put(token.getTokenHash(), token);
+            return token;
+        });
+        when(repository.findByTokenHash(anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(stored.get(invocation.<String>getArgument(0))));
+        when(repository.markUsed(anyLong(), any(LocalDateTime.class))).thenAnswer(invocation -> {
+            Long id = invocation.getArgument(0);
+            RefreshToken token = stored.values().stream().filter(t -> t.getId().equals(id)).findFirst().orElseThrow();
+            if (token.getUsedAt() != null) {
+                return 0;
+            }
+            token.setUsedAt(invocation.getArgument(1));
+            return 1;
+        });
+        revocationList = mock(TokenRevocationList.class);
+        JwtConfig config = new JwtConfig();
+        config.setRefreshExpiration(86_400_000);
+        service = new RefreshTokenService(repository, revocationList, config);
+    }
+
+    @Test
+    void rotationKeepsTheFamilyAndRetiresTheOldToken() {
+        String first = service.issue(USER_ID);
+
+        RefreshTokenService.Rotation rotation = service.rotate(first);
+
+        assertThat(rotation.userId()).isEqualTo(USER_ID);
+        assertThat(rotation.refreshToken()).isNotEqualTo(first);
+        RefreshToken old = stored.get(Hashing.sha256Hex(first));
+        RefreshToken next = stored.get(Hashing.sha256Hex(rotation.refreshToken()));
+        assertThat(old.getUsedAt()).isNotNull();
+        assertThat(next.getFamilyId()).isEqualTo(old.getFamilyId());
+        verify(revocationList, never()).revokeAllForUser(anyLong());
+    }
+
+    @Test
+    void reusedTokenRevokesTheWholeFamily() {
+        String first = service.issue(USER_ID);
+        service.rotate(first);
+
+        assertThatThrownBy(() -> service.rotate(first))
+                .isInstanceOf(UnauthorizedException.class)
+                .hasMessage("Refresh token has already been used");
+
+        String familyId = stored.get(Hashing.sha256Hex(first)).getFamilyId();
+        verify(repository).deleteByFamily(familyId);
+        verify(revocationList).revokeAllForUser(USER_ID);
+    }
+
+    @Test
+    void concurrentRotationLosesTheRaceAndRevokes() {
+        String first = service.issue(USER_ID);
+        // Another request claimed the token between the lookup and markUsed
+        when(repository.markUsed(anyLong(), any(LocalDateTime.class))).thenReturn(0);
+
+        assertThatThrownBy(() -> service.rotate(first)).isInstanceOf(UnauthorizedException.class);
+
+        ArgumentCaptor<String> family = ArgumentCaptor.forClass(String.class);
+        verify(repository).deleteByFamily(family.capture());
+        assertThat(family.getValue()).isEqualTo(stored.get(Hashing.sha256Hex(first)).getFamilyId());
+        verify(revocationList).revokeAllForUser(USER_ID);
+    }
+
+    @Test
+    void unknownTokenIsRejectedWithoutRevoking() {
+        assertThatThrownBy(() -> service.rotate("not-a-token"))
+                .isInstanceOf(UnauthorizedException.class)
+                .hasMessage("Invalid refresh token");
+        verify(revocationList, never()).revokeAllForUser(anyLong());
+    }
+}
@@ -0,0 +1,149 @@
+package com.ecommerce.vic.service;
+
+import com.ecommerce.vic.config.SmsConfig;
+import com.ecommerce.vic.event.SmsRequestedEvent;
+import com.ecommerce.vic.notification.NotificationTemplates;
+import com.ecommerce.vic.sms.HttpSmsProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+// Drives SmsService through the real HTTP provider against a stub gateway. Worker starts and retries are
+// captured and run by the test, so every outcome is checked without threads or waiting on backoff.
+class SmsServiceTest {
+    private MockWebServer gateway;
+    private SmsConfig config;
+    private ThreadPoolTaskExecutor smsExecutor;
+    private final Deque<Runnable> workers = new ArrayDeque<>();
+    private TaskScheduler taskScheduler;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        gateway = new MockWebServer();
+        gateway.start();
+        config = new SmsConfig();
+        config.setProvider("http");
+        config.setMaxAttempts(3);
+        config.setInitialBackoff(Duration.ofSeconds(1));
+        config.getHttp().setUrl(gateway.url("/messages").toString());
+        smsExecutor = mock(ThreadPoolTaskExecutor.class);
+        doAnswer(invocation -> workers.add(invocation.getArgument(0))).when(smsExecutor).execute(any(Runnable.class));
+        taskScheduler = mock(TaskScheduler.class);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        gateway.shutdown();
+    }
+
+    @Test
+    void throttledMessageIsRetriedUntilAccepted() {
+        gateway.enqueue(new MockResponse().setResponseCode(429));
+        gateway.enqueue(new MockResponse().setResponseCode(503));
+        gateway.enqueue(new MockResponse().setResponseCode(200));
+        SmsService service = service();
+
+        service.onSmsRequested(new SmsRequestedEvent("+4790000001", "Code 1234"));
+        runWorkers();
+        runScheduledRetry(1);
+        runScheduledRetry(2);
+
+        assertThat(gateway.getRequestCount()).isEqualTo(3);
+        assertThat(outcome("retry")).isEqualTo(2);
+        assertThat(outcome("sent")).isEqualTo(1);
+        assertThat(outcome("failed")).isZero();
+    }
+
+    @Test
+    void serverErrorsGiveUpAfterMaxAttempts() {
+        for (int i = 0; i < 3; i++) {
+            gateway.enqueue(new MockResponse().setResponseCode(500));
+        }
+        SmsService service = service();
+
+        service.onSmsRequested(new SmsRequestedEvent("+4790000001", "Code 1234"));
+        runWorkers();
+        runScheduledRetry(1);
+        runScheduledRetry(2);
+
+        assertThat(gateway.getRequestCount()).isEqualTo(3);
+        assertThat(outcome("retry")).isEqualTo(2);
+        assertThat(outcome("failed")).isEqualTo(1);
+    }
+
+    @Test
+    void clientErrorGivesUpImmediately() {
+        gateway.enqueue(new MockResponse().setResponseCode(422));
+        SmsService service = service();
+
+        service.onSmsRequested(new SmsRequestedEvent("+4790000001", "Code 1234"));
+        runWorkers();
+
+        assertThat(gateway.getRequestCount()).isEqualTo(1);
+        assertThat(outcome("failed")).isEqualTo(1);
+        assertThat(outcome("retry")).isZero();
+        verify(taskScheduler, never()).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    @Test
+    void fullQueueDropsTheMessage() {
+        config.setQueueCapacity(2);
+        // Workers are never run, as when the gateway is too slow to keep up
+        SmsService service = service();
+
+        service.onSmsRequested(new SmsRequestedEvent("+4790000001", "one"));
+        service.onSmsRequested(new SmsRequestedEvent("+4790000002", "two"));
+        service.onSmsRequested(new SmsRequestedEvent("+4790000003", "three"));
+
+        assertThat(outcome("dropped")).isEqualTo(1);
+        assertThat(meterRegistry.get("sms.queue.depth").gauge().value()).isEqualTo(2);
+        assertThat(gateway.getRequestCount()).isZero();
+    }
+
+    private SmsService service() {
+        return new SmsService(new HttpSmsProvider(config, RestClient.builder()), mock(NotificationTemplates.class),
+                config, smsExecutor, taskScheduler, mock(ApplicationEventPublisher.class), meterRegistry);
+    }
+
+    private void runScheduledRetry(int times) {
+        ArgumentCaptor<Runnable> retry = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskScheduler, times(times)).schedule(retry.capture(), any(Instant.class));
+        retry.getValue().run();
+        runWorkers();
+    }
+
+    private void runWorkers() {
+        Runnable worker;
+        while ((worker = workers.poll()) != null) {
+            worker.run();
+        }
+    }
+
+    private double outcome(String outcome) {
+        return meterRegistry.get("sms.delivered").tag("outcome", outcome).counter().count();
+    }
+}
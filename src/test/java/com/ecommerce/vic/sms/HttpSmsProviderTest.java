@@ -0,0 +1,100 @@
+package com.ecommerce.vic.sms;
+
+import com.ecommerce.vic.config.SmsConfig;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HttpSmsProviderTest {
+    private static final List<SmsMessage> BATCH = List.of(
+            new SmsMessage("+4790000001", "Code 1234"),
+            new SmsMessage("+4790000002", "Code 5678"));
+
+    private MockWebServer gateway;
+    private HttpSmsProvider provider;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        gateway = new MockWebServer();
+        gateway.start();
+        SmsConfig config = new SmsConfig();
+        config.getHttp().setUrl(gateway.url("/messages").toString());
+        config.getHttp().setApiKey("secret");
+        config.getHttp().setBatchSize(25);
+        provider = new HttpSmsProvider(config, RestClient.builder());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        gateway.shutdown();
+    }
+
+    @Test
+    void postsTheWholeBatchAsJson() throws Exception {
+        gateway.enqueue(new MockResponse().setResponseCode(202));
+
+        provider.send(BATCH);
+
+        RecordedRequest request = gateway.takeRequest();
+        assertThat(request.getMethod()).isEqualTo("POST");
+        assertThat(request.getPath()).isEqualTo("/messages");
+        assertThat(request.getHeader("Authorization")).isEqualTo("Bearer secret");
+        assertThat(request.getHeader("Content-Type")).startsWith("application/json");
+        assertThat(request.getBody().readUtf8()).isEqualTo(
+                "{\"messages\":[{\"to\":\"+4790000001\",\"body\":\"Code 1234\"},"
+                        + "{\"to\":\"+4790000002\",\"body\":\"Code 5678\"}]}");
+        assertThat(provider.maxBatchSize()).isEqualTo(25);
+    }
+
+    @Test
+    void throttlingIsRetryable() {
+        gateway.enqueue(new MockResponse().setResponseCode(429));
+
+        assertThatThrownBy(() -> provider.send(BATCH))
+                .isInstanceOfSatisfying(SmsDeliveryException.class, e -> {
+                    assertThat(e.isRetryable()).isTrue();
+                    assertThat(e.getRejected()).isEmpty();
+                    assertThat(e).hasMessage("Gateway responded 429");
+                });
+    }
+
+    @Test
+    void serverErrorsAreRetryable() {
+        gateway.enqueue(new MockResponse().setResponseCode(503));
+
+        assertThatThrownBy(() -> provider.send(BATCH))
+                .isInstanceOfSatisfying(SmsDeliveryException.class, e -> assertThat(e.isRetryable()).isTrue());
+    }
+
+    @Test
+    void clientErrorsAreNotRetryable() {
+        gateway.enqueue(new MockResponse().setResponseCode(400).setBody("{\"error\":\"invalid number\"}"));
+
+        assertThatThrownBy(() -> provider.send(BATCH))
+                .isInstanceOfSatisfying(SmsDeliveryException.class, e -> {
+                    assertThat(e.isRetryable()).isFalse();
+                    assertThat(e).hasMessage("Gateway responded 400");
+                });
+    }
+
+    @Test
+    void unreachableGatewayIsRetryable() throws IOException {
+        gateway.shutdown();
+
+        assertThatThrownBy(() -> provider.send(BATCH))
+                .isInstanceOfSatisfying(SmsDeliveryException.class, e -> {
+                    assertThat(e.isRetryable()).isTrue();
+                    assertThat(e.getMessage()).startsWith("Gateway unreachable");
+                });
+    }
+}
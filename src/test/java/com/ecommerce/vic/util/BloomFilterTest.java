@@ -0,0 +1,79 @@
+package com.ecommerce.vic.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+    private static final int INSERTIONS = 100_000;
+
+    @Test
+    void everyAddedValueIsReported() {
+        BloomFilter filter = new BloomFilter(INSERTIONS, 0.01);
+        for (int i = 0; i < INSERTIONS; i++) {
+            filter.add("user" + i + "@example.com");
+        }
+
+        assertThat(IntStream.range(0, INSERTIONS).filter(i -> !filter.mightContain("user" + i + "@example.com")))
+                .isEmpty();
+    }
+
+    @Test
+    void concurrentAddsLoseNoBits() throws Exception {
+        BloomFilter filter = new BloomFilter(INSERTIONS, 0.01);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int offset = t;
+                writers.add(pool.submit(() -> {
+                    for (int i = offset; i < INSERTIONS; i += 4) {
+                        filter.add("user" + i + "@example.com");
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(IntStream.range(0, INSERTIONS).filter(i -> !filter.mightContain("user" + i + "@example.com")))
+                .isEmpty();
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTheConfiguredRate() {
+        assertThat(measuredFalsePositiveRate(0.01)).isBetween(0.005, 0.015);
+        assertThat(measuredFalsePositiveRate(0.001)).isBetween(0.0003, 0.002);
+    }
+
+    @Test
+    void sizingFollowsTheStandardFormulas() {
+        BloomFilter filter = new BloomFilter(1_000_000, 0.01);
+
+        // m = -n ln p / (ln 2)^2, about 9.59 bits per element, and k = m/n ln 2, about 7
+        assertThat(filter.bitCount()).isBetween(9_585_000L, 9_585_100L);
+        assertThat(filter.hashCount()).isEqualTo(7);
+    }
+
+    private static double measuredFalsePositiveRate(double configured) {
+        BloomFilter filter = new BloomFilter(INSERTIONS, configured);
+        for (int i = 0; i < INSERTIONS; i++) {
+            filter.add("user" + i + "@example.com");
+        }
+        int probes = 200_000;
+        long falsePositives = IntStream.range(0, probes)
+                .filter(i -> filter.mightContain("visitor" + i + "@example.org"))
+                .count();
+        return (double) falsePositives / probes;
+    }
+}
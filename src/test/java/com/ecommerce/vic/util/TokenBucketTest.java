@@ -0,0 +1,71 @@
+package com.ecommerce.vic.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+    private static final long MS = 1_000_000L;
+
+    @Test
+    void burstEqualsCapacity() {
+        TokenBucket bucket = new TokenBucket(5, Duration.ofSeconds(1), 0);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.tryAcquire(0)).isZero();
+        }
+        assertThat(bucket.tryAcquire(0)).isPositive();
+    }
+
+    @Test
+    void rejectionReturnsTheWaitUntilTheNextToken() {
+        TokenBucket bucket = new TokenBucket(5, Duration.ofSeconds(1), 0);
+        drain(bucket, 5, 0);
+
+        assertThat(bucket.tryAcquire(0)).isEqualTo(200 * MS);
+        assertThat(bucket.tryAcquire(150 * MS)).isEqualTo(50 * MS);
+        // Rejections do not consume anything, so the advertised wait holds
+        assertThat(bucket.tryAcquire(200 * MS)).isZero();
+    }
+
+    @Test
+    void refillsOneTokenPerEmissionInterval() {
+        TokenBucket bucket = new TokenBucket(5, Duration.ofSeconds(1), 0);
+        drain(bucket, 5, 0);
+
+        assertThat(bucket.tryAcquire(199 * MS)).isPositive();
+        assertThat(bucket.tryAcquire(200 * MS)).isZero();
+        assertThat(bucket.tryAcquire(200 * MS)).isPositive();
+        assertThat(bucket.tryAcquire(600 * MS)).isZero();
+        assertThat(bucket.tryAcquire(600 * MS)).isZero();
+        assertThat(bucket.tryAcquire(600 * MS)).isPositive();
+    }
+
+    @Test
+    void idleTimeDoesNotGrowTheBurstBeyondCapacity() {
+        TokenBucket bucket = new TokenBucket(3, Duration.ofSeconds(1), 0);
+        drain(bucket, 3, 0);
+
+        long later = Duration.ofMinutes(10).toNanos();
+        drain(bucket, 3, later);
+        assertThat(bucket.tryAcquire(later)).isEqualTo(Duration.ofSeconds(1).toNanos() / 3);
+    }
+
+    @Test
+    void survivesNanoTimeWrapAround() {
+        long start = Long.MAX_VALUE - 100 * MS;
+        TokenBucket bucket = new TokenBucket(2, Duration.ofSeconds(1), start);
+        drain(bucket, 2, start);
+
+        assertThat(bucket.tryAcquire(start)).isEqualTo(500 * MS);
+        assertThat(bucket.tryAcquire(start + 500 * MS)).isZero();
+    }
+
+    private static void drain(TokenBucket bucket, int tokens, long nowNanos) {
+        for (int i = 0; i < tokens; i++) {
+            assertThat(bucket.tryAcquire(nowNanos)).isZero();
+        }
+    }
+}